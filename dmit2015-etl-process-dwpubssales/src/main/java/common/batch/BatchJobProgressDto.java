@@ -0,0 +1,45 @@
+package common.batch;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The progress of a batch job execution returned from /batch-jobs/{id}/progress.
+ */
+@Data
+@NoArgsConstructor
+public class BatchJobProgressDto {
+
+    private long executionId;
+
+    private String jobName;
+
+    private String batchStatus;
+
+    private String exitStatus;
+
+    private LocalDateTime startTime;
+
+    private LocalDateTime endTime;
+
+    /** The steps that are running now. There is more than one while the flows of a split run. */
+    private List<String> currentSteps = new ArrayList<>();
+
+    private int completedSteps;
+
+    /** The number of steps in previous runs of the job, or the number of steps started so far for a new job */
+    private int totalSteps;
+
+    /** The percentage of the previous run time taken by the completed steps, or null without a previous run */
+    private Double percentComplete;
+
+    private long elapsedMilliseconds;
+
+    /** The average run time of previous executions minus the elapsed time, or null without a previous run */
+    private Long estimatedRemainingMilliseconds;
+
+}
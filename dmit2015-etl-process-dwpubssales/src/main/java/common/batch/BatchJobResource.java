@@ -1,19 +1,35 @@
 package common.batch;
 
+import dmit2015.batch.metrics.EtlJobProgressEstimator;
+import dmit2015.batch.metrics.EtlStepMetrics;
+import dmit2015.dto.EtlJobRequestDto;
+import dmit2015.entity.EtlStepRun;
+import dmit2015.repository.EtlStepRunRepository;
+import jakarta.batch.operations.JobExecutionAlreadyCompleteException;
+import jakarta.batch.operations.JobExecutionIsRunningException;
+import jakarta.batch.operations.JobExecutionNotMostRecentException;
+import jakarta.batch.operations.JobExecutionNotRunningException;
 import jakarta.batch.operations.JobOperator;
+import jakarta.batch.operations.JobRestartException;
 import jakarta.batch.operations.JobStartException;
+import jakarta.batch.operations.NoSuchJobExecutionException;
 import jakarta.batch.runtime.BatchRuntime;
 import jakarta.batch.runtime.JobExecution;
+import jakarta.inject.Inject;
 
 import java.net.URI;
+import java.util.List;
+import java.util.Properties;
 import java.util.Set;
 
 import jakarta.ws.rs.Consumes;
+import jakarta.ws.rs.DefaultValue;
 import jakarta.ws.rs.GET;
 import jakarta.ws.rs.POST;
 import jakarta.ws.rs.Path;
 import jakarta.ws.rs.PathParam;
 import jakarta.ws.rs.Produces;
+import jakarta.ws.rs.QueryParam;
 import jakarta.ws.rs.core.Context;
 import jakarta.ws.rs.core.MediaType;
 import jakarta.ws.rs.core.Response;
@@ -24,9 +40,17 @@
  *
  * 	URI					        Http Method		Description
  * 	--------------------------  -----------		------------------------------------------
- *	/batch-jobs/{filename}	    POST			Start a new Batch Job
+ *	/batch-jobs/{filename}	    POST			Start a new Batch Job using the query parameters as job parameters
+ *	/batch-jobs/etl		        POST			Start a full or incremental DWPubsSales ETL job
  *	/batch-jobs/1		        GET				Find the status of the specified batch job
+ *	/batch-jobs/1/progress      GET				Get the current steps, completed steps, elapsed time and estimated time remaining
+ *	/batch-jobs/1/stop	        POST			Stop the running batch job
+ *	/batch-jobs/1/restart       POST			Restart the stopped or failed batch job
+ *	/batch-jobs/1/abandon       POST			Abandon the stopped or failed batch job so it can't be restarted
  *	/batch-jobs/names	        GET				Get a set of batch job names
+ *	/batch-jobs/1/steps	        GET				Get the duration, rows affected and status of each step of the batch job
+ *	/batch-jobs/history	        GET				Get the most recent step runs of all batch jobs
+ *	/batch-jobs/metrics	        GET				Get the step timers since the application started
  *
  * @author Sam Wu
  *
@@ -37,13 +61,61 @@
 @Produces(MediaType.APPLICATION_JSON)	// All methods returns data that has been converted to JSON format
 public class BatchJobResource {
 
+	private static final int DEFAULT_HISTORY_LIMIT = 100;
+
+	private static final String FULL_ETL_JOB_XML_NAME = "batchletETLProcessForDWPubsSales";
+	private static final String INCREMENTAL_ETL_JOB_XML_NAME = "batchletIncrementalETLProcessForDWPubsSales";
+
+	@Inject
+	private EtlStepRunRepository _stepRunRepository;
+
+	@Inject
+	private EtlStepMetrics _stepMetrics;
+
+	@Inject
+	private EtlJobProgressEstimator _progressEstimator;
+
 	@POST					// This method only accepts HTTP POST requests.
 	@Path("{filename}")
 	public Response startBatchJob(@PathParam("filename") String jobXMLName, @Context UriInfo uriInfo) {
+		// Each query parameter is passed to the job as a job parameter
+		Properties jobParameters = new Properties();
+		uriInfo.getQueryParameters().forEach((name, values) -> jobParameters.setProperty(name, values.get(0)));
+		return startJob(jobXMLName, jobParameters, uriInfo);
+	}
+
+	@POST					// This method only accepts HTTP POST requests.
+	@Path("etl")
+	public Response startEtlJob(EtlJobRequestDto etlJobRequest, @Context UriInfo uriInfo) {
+		if (etlJobRequest == null) {
+			etlJobRequest = new EtlJobRequestDto();
+		}
+		if (etlJobRequest.getMode() == null) {
+			return Response.status(Response.Status.BAD_REQUEST).entity("The mode must be FULL or INCREMENTAL.").build();
+		}
+		if (etlJobRequest.getStartDate() != null && etlJobRequest.getEndDate() != null
+				&& etlJobRequest.getEndDate().isBefore(etlJobRequest.getStartDate())) {
+			return Response.status(Response.Status.BAD_REQUEST).entity("The endDate must not be before the startDate.").build();
+		}
+
+		Properties jobParameters = new Properties();
+		if (etlJobRequest.getStartDate() != null) {
+			jobParameters.setProperty("dim_dates_start_date", etlJobRequest.getStartDate().toString());
+		}
+		if (etlJobRequest.getEndDate() != null) {
+			jobParameters.setProperty("dim_dates_end_date", etlJobRequest.getEndDate().toString());
+		}
+		String jobXMLName = etlJobRequest.getMode() == EtlJobRequestDto.Mode.INCREMENTAL
+				? INCREMENTAL_ETL_JOB_XML_NAME
+				: FULL_ETL_JOB_XML_NAME;
+		return startJob(jobXMLName, jobParameters, uriInfo);
+	}
+
+	private Response startJob(String jobXMLName, Properties jobParameters, UriInfo uriInfo) {
 		JobOperator jobOperator = BatchRuntime.getJobOperator();
 
 		try {
-			long jobId = jobOperator.start(jobXMLName, null);
+			long jobId = jobOperator.start(jobXMLName, jobParameters);
 
 			URI location = URI.create(uriInfo.getBaseUri().toString() + "batch-jobs/" + jobId );
 
@@ -82,4 +154,120 @@ public Response getJobNames() {
 		}
 	}
 
+	@GET 				// This method only accepts HTTP GET requests.
+	@Path("{id}/steps")
+	public Response getStepRuns(@PathParam("id") Long jobId) {
+		JobOperator jobOperator = BatchRuntime.getJobOperator();
+		try {
+			jobOperator.getJobExecution(jobId);
+		} catch (NoSuchJobExecutionException ex) {
+			return Response.status(Response.Status.NOT_FOUND).build();
+		}
+		try {
+			List<EtlStepRun> stepRuns = _stepRunRepository.findByJobExecutionId(jobId);
+			return Response.ok(stepRuns).build();
+		} catch (Exception ex) {
+			return Response.serverError().entity(ex.getMessage()).build();
+		}
+	}
+
+	/**
+	 * Return the most recent step runs, newest first. Use the stepName query parameter to compare the runs of one step.
+	 */
+	@GET 				// This method only accepts HTTP GET requests.
+	@Path("history")
+	public Response getStepRunHistory(
+			@QueryParam("stepName") String stepName,
+			@QueryParam("limit") @DefaultValue("" + DEFAULT_HISTORY_LIMIT) int limit) {
+		if (limit < 1) {
+			return Response.status(Response.Status.BAD_REQUEST).entity("The limit must be greater than 0.").build();
+		}
+		try {
+			List<EtlStepRun> stepRuns = _stepRunRepository.findRecent(stepName, limit);
+			return Response.ok(stepRuns).build();
+		} catch (Exception ex) {
+			return Response.serverError().entity(ex.getMessage()).build();
+		}
+	}
+
+	@GET 				// This method only accepts HTTP GET requests.
+	@Path("metrics")
+	public Response getStepMetrics() {
+		return Response.ok(_stepMetrics.getTimers()).build();
+	}
+
+	@GET 				// This method only accepts HTTP GET requests.
+	@Path("{id}/progress")
+	public Response getBatchProgress(@PathParam("id") Long jobId) {
+		try {
+			return Response.ok(_progressEstimator.estimateProgress(jobId)).build();
+		} catch (NoSuchJobExecutionException ex) {
+			return Response.status(Response.Status.NOT_FOUND).build();
+		} catch (Exception ex) {
+			return Response.serverError().entity(ex.getMessage()).build();
+		}
+	}
+
+	@POST					// This method only accepts HTTP POST requests.
+	@Path("{id}/stop")
+	public Response stopBatchJob(@PathParam("id") Long jobId) {
+		JobOperator jobOperator = BatchRuntime.getJobOperator();
+		try {
+			jobOperator.stop(jobId);
+			// The job stops when the current step reaches a point where it can stop
+			return Response.accepted().build();
+		} catch (NoSuchJobExecutionException ex) {
+			return Response.status(Response.Status.NOT_FOUND).build();
+		} catch (JobExecutionNotRunningException ex) {
+			return Response.status(Response.Status.CONFLICT).entity(ex.getMessage()).build();
+		} catch (Exception ex) {
+			return Response.serverError().entity(ex.getMessage()).build();
+		}
+	}
+
+	@POST					// This method only accepts HTTP POST requests.
+	@Path("{id}/restart")
+	public Response restartBatchJob(@PathParam("id") Long jobId, @Context UriInfo uriInfo) {
+		JobOperator jobOperator = BatchRuntime.getJobOperator();
+		try {
+			// Use the job parameters of the stopped or failed execution unless new values are given as query parameters
+			Properties jobParameters = new Properties();
+			Properties previousJobParameters = jobOperator.getParameters(jobId);
+			if (previousJobParameters != null) {
+				jobParameters.putAll(previousJobParameters);
+			}
+			uriInfo.getQueryParameters().forEach((name, values) -> jobParameters.setProperty(name, values.get(0)));
+
+			long restartedJobId = jobOperator.restart(jobId, jobParameters);
+
+			URI location = URI.create(uriInfo.getBaseUri().toString() + "batch-jobs/" + restartedJobId );
+
+			return Response
+				.created(location)
+				.build();
+		} catch (NoSuchJobExecutionException ex) {
+			return Response.status(Response.Status.NOT_FOUND).build();
+		} catch (JobExecutionAlreadyCompleteException | JobExecutionNotMostRecentException | JobRestartException ex) {
+			return Response.status(Response.Status.CONFLICT).entity(ex.getMessage()).build();
+		} catch (Exception ex) {
+			return Response.serverError().entity(ex.getMessage()).build();
+		}
+	}
+
+	@POST					// This method only accepts HTTP POST requests.
+	@Path("{id}/abandon")
+	public Response abandonBatchJob(@PathParam("id") Long jobId) {
+		JobOperator jobOperator = BatchRuntime.getJobOperator();
+		try {
+			jobOperator.abandon(jobId);
+			return Response.noContent().build();
+		} catch (NoSuchJobExecutionException ex) {
+			return Response.status(Response.Status.NOT_FOUND).build();
+		} catch (JobExecutionIsRunningException ex) {
+			return Response.status(Response.Status.CONFLICT).entity(ex.getMessage()).build();
+		} catch (Exception ex) {
+			return Response.serverError().entity(ex.getMessage()).build();
+		}
+	}
+
 }
\ No newline at end of file
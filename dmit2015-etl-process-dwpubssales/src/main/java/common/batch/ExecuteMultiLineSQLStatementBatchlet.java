@@ -4,23 +4,35 @@
 import jakarta.batch.api.BatchProperty;
 import jakarta.batch.runtime.BatchStatus;
 import jakarta.batch.runtime.context.JobContext;
+import jakarta.batch.runtime.context.StepContext;
 import jakarta.enterprise.context.Dependent;
 import jakarta.inject.Inject;
 import jakarta.inject.Named;
 import jakarta.persistence.EntityManager;
 import jakarta.persistence.PersistenceContext;
 import jakarta.transaction.Transactional;
+import org.hibernate.Session;
 
-import java.io.BufferedReader;
 import java.io.FileNotFoundException;
 import java.io.InputStream;
 import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
 /**
- * This Batchlet reads native SQL statements from a script file as a single String
- * and then executes the single SQL string.
+ * This Batchlet reads native SQL statements from a script file and executes them in a single transaction.
+ * <p>
+ * The script is split into statements on lines that contain only `GO`, and also on semicolons when
+ * the `split_on_semicolons` property is true. The statements are sent in one JDBC batch unless the
+ * `batch_statements` property is false, in which case each statement is run and timed on its own.
+ * A script without separators is run as one statement like before.
+ * The row count and elapsed time of each statement is stored as a {@link SqlScriptResult} in the
+ * persistent user data of the step.
  *
  * It either succeeds or fails. If it fails, it CAN be restarted and it runs again.
  */
@@ -28,9 +40,14 @@
 @Dependent
 public class ExecuteMultiLineSQLStatementBatchlet extends AbstractBatchlet {
 
+    private static final int STATEMENT_SUMMARY_LENGTH = 100;
+
     @Inject
     private JobContext _jobContext;
 
+    @Inject
+    private StepContext _stepContext;
+
     @Inject
     private Logger _logger;
 
@@ -41,6 +58,14 @@ public class ExecuteMultiLineSQLStatementBatchlet extends AbstractBatchlet {
     @BatchProperty(name = "sql_script_file")
     private String sqlScriptFile;
 
+    @Inject
+    @BatchProperty(name = "split_on_semicolons")
+    private String splitOnSemicolons;
+
+    @Inject
+    @BatchProperty(name = "batch_statements")
+    private String batchStatements;
+
 
     /**
      * Perform a task and return "COMPLETED" if the job has successfully completed
@@ -64,16 +89,43 @@ public String process() throws Exception {
                 throw new FileNotFoundException("SQL script file not found in classpath: " + sqlScriptFile);
             }
 
-            try (BufferedReader reader = new BufferedReader(new InputStreamReader(scriptStream))) {
-                StringBuilder sqlStatementBuilder = new StringBuilder();
-                String line;
-                while ((line = reader.readLine()) != null) {
-                    sqlStatementBuilder.append(line).append("\n");
-                }
-                final String sqlStatement = sqlStatementBuilder.toString();
-                _entityManager.createNativeQuery(sqlStatement).executeUpdate();
+            List<String> sqlStatements = new ArrayList<>();
+            try (Reader reader = new InputStreamReader(scriptStream, StandardCharsets.UTF_8)) {
+                new SqlScriptParser(Boolean.parseBoolean(splitOnSemicolons)).parse(reader, sqlStatements::add);
             }
 
+            SqlScriptResult scriptResult = new SqlScriptResult();
+            scriptResult.setSqlScriptFile(sqlScriptFile);
+            scriptResult.setBatched(sqlStatements.size() > 1 && !"false".equalsIgnoreCase(batchStatements));
+            long startTime = System.currentTimeMillis();
+            // Run the statements on the JDBC connection of the current transaction
+            _entityManager.unwrap(Session.class).doWork(connection -> {
+                try (Statement statement = connection.createStatement()) {
+                    if (scriptResult.isBatched()) {
+                        for (String sqlStatement : sqlStatements) {
+                            statement.addBatch(sqlStatement);
+                        }
+                        int[] rowCounts = statement.executeBatch();
+                        for (int index = 0; index < sqlStatements.size(); index++) {
+                            addStatementResult(scriptResult, sqlStatements.get(index), rowCounts[index], null);
+                        }
+                    } else {
+                        for (String sqlStatement : sqlStatements) {
+                            long statementStartTime = System.currentTimeMillis();
+                            int rowCount = statement.executeUpdate(sqlStatement);
+                            addStatementResult(scriptResult, sqlStatement, rowCount,
+                                    System.currentTimeMillis() - statementStartTime);
+                        }
+                    }
+                }
+            });
+            scriptResult.setElapsedMilliseconds(System.currentTimeMillis() - startTime);
+            _stepContext.setPersistentUserData(scriptResult);
+
+            _logger.log(Level.INFO, "[{0}] Ran {1} statements from {2} affecting {3} rows in {4} milliseconds",
+                    new Object[]{_stepContext.getStepName(), sqlStatements.size(), sqlScriptFile,
+                            scriptResult.getTotalRowCount(), scriptResult.getElapsedMilliseconds()});
+
             return BatchStatus.COMPLETED.toString();
 
         } catch (Exception ex) {
@@ -83,4 +135,12 @@ public String process() throws Exception {
         }
 
     }
-}
\ No newline at end of file
+
+    private void addStatementResult(SqlScriptResult scriptResult, String sqlStatement, int rowCount, Long elapsedMilliseconds) {
+        String summary = sqlStatement.length() > STATEMENT_SUMMARY_LENGTH
+                ? sqlStatement.substring(0, STATEMENT_SUMMARY_LENGTH)
+                : sqlStatement;
+        scriptResult.getStatements().add(new SqlStatementResult(
+                scriptResult.getStatements().size() + 1, summary, rowCount, elapsedMilliseconds));
+    }
+}
@@ -0,0 +1,137 @@
+package common.batch;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.util.function.Consumer;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * This class splits a SQL script into statements while reading it one line at a time.
+ * <p>
+ * A line that contains only the batch separator `GO` always ends the current statement.
+ * `GO n` passes the statement `n` times, the same as sqlcmd and SQL Server Management Studio.
+ * When `splitOnSemicolons` is true a semicolon also ends the current statement; the semicolon is kept
+ * because some statements such as MERGE must end with one.
+ * Separators inside string literals, quoted identifiers, line comments and (nested) block comments are ignored,
+ * and statements that contain only comments are not returned.
+ */
+public class SqlScriptParser {
+
+    private static final Pattern BATCH_SEPARATOR = Pattern.compile("(?i)\\s*GO(?:\\s+(\\d+))?\\s*(--.*)?");
+
+    private final boolean splitOnSemicolons;
+
+    private final StringBuilder statementBuilder = new StringBuilder();
+    private boolean statementHasCode;
+    // The closing character of the string literal or quoted identifier being read, or 0 when not in one
+    private char closingQuote;
+    private int blockCommentDepth;
+
+    public SqlScriptParser(boolean splitOnSemicolons) {
+        this.splitOnSemicolons = splitOnSemicolons;
+    }
+
+    /**
+     * Read the script from `reader` and pass each statement to `statementConsumer` in script order.
+     */
+    public void parse(Reader reader, Consumer<String> statementConsumer) throws IOException {
+        BufferedReader lineReader = reader instanceof BufferedReader bufferedReader ? bufferedReader : new BufferedReader(reader);
+        String line;
+        while ((line = lineReader.readLine()) != null) {
+            Matcher batchSeparator = BATCH_SEPARATOR.matcher(line);
+            if (closingQuote == 0 && blockCommentDepth == 0 && batchSeparator.matches()) {
+                endStatement(statementConsumer, repeatCount(batchSeparator.group(1), line));
+            } else {
+                parseLine(line, statementConsumer);
+                statementBuilder.append('\n');
+            }
+        }
+        endStatement(statementConsumer);
+    }
+
+    private void parseLine(String line, Consumer<String> statementConsumer) {
+        int length = line.length();
+        for (int index = 0; index < length; index++) {
+            char current = line.charAt(index);
+            char next = index + 1 < length ? line.charAt(index + 1) : 0;
+
+            if (blockCommentDepth > 0) {
+                statementBuilder.append(current);
+                if (current == '*' && next == '/') {
+                    statementBuilder.append(next);
+                    index++;
+                    blockCommentDepth--;
+                } else if (current == '/' && next == '*') {
+                    statementBuilder.append(next);
+                    index++;
+                    blockCommentDepth++;
+                }
+            } else if (closingQuote != 0) {
+                statementBuilder.append(current);
+                if (current == closingQuote) {
+                    if (next == closingQuote) {
+                        // A doubled quote is an escaped quote inside the literal
+                        statementBuilder.append(next);
+                        index++;
+                    } else {
+                        closingQuote = 0;
+                    }
+                }
+            } else if (current == '-' && next == '-') {
+                // The rest of the line is a comment
+                statementBuilder.append(line, index, length);
+                return;
+            } else if (current == '/' && next == '*') {
+                statementBuilder.append(current).append(next);
+                index++;
+                blockCommentDepth = 1;
+            } else if (current == ';' && splitOnSemicolons) {
+                statementBuilder.append(current);
+                endStatement(statementConsumer);
+            } else {
+                statementBuilder.append(current);
+                if (current == '\'' || current == '"') {
+                    closingQuote = current;
+                } else if (current == '[') {
+                    closingQuote = ']';
+                }
+                if (!Character.isWhitespace(current)) {
+                    statementHasCode = true;
+                }
+            }
+        }
+    }
+
+    private static int repeatCount(String count, String line) {
+        if (count == null) {
+            return 1;
+        }
+        try {
+            int repeatCount = Integer.parseInt(count);
+            if (repeatCount > 0) {
+                return repeatCount;
+            }
+        } catch (NumberFormatException e) {
+            // Fall through to the error for a count that is too large
+        }
+        throw new IllegalArgumentException("The count of the batch separator must be from 1 to " + Integer.MAX_VALUE + ": " + line.strip());
+    }
+
+    private void endStatement(Consumer<String> statementConsumer) {
+        endStatement(statementConsumer, 1);
+    }
+
+    private void endStatement(Consumer<String> statementConsumer, int repeatCount) {
+        if (statementHasCode) {
+            String statement = statementBuilder.toString().strip();
+            for (int count = 0; count < repeatCount; count++) {
+                statementConsumer.accept(statement);
+            }
+        }
+        statementBuilder.setLength(0);
+        statementHasCode = false;
+    }
+
+}
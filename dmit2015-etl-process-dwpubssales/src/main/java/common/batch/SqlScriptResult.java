@@ -0,0 +1,37 @@
+package common.batch;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The outcome of running a SQL script that {@link ExecuteMultiLineSQLStatementBatchlet} stores in the
+ * persistent user data of its step.
+ */
+@Data
+@NoArgsConstructor
+public class SqlScriptResult implements Serializable {
+
+    private String sqlScriptFile;
+
+    /** True if the statements were sent to the database in a single JDBC batch */
+    private boolean batched;
+
+    private long elapsedMilliseconds;
+
+    private List<SqlStatementResult> statements = new ArrayList<>();
+
+    /**
+     * Return the total number of rows affected by the statements that reported a row count.
+     */
+    public long getTotalRowCount() {
+        return statements.stream()
+                .mapToLong(SqlStatementResult::getRowCount)
+                .filter(rowCount -> rowCount > 0)
+                .sum();
+    }
+
+}
@@ -0,0 +1,29 @@
+package common.batch;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.io.Serializable;
+
+/**
+ * The outcome of running one statement from a SQL script.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class SqlStatementResult implements Serializable {
+
+    /** The position of the statement in the script starting at 1 */
+    private int statementNumber;
+
+    /** The beginning of the statement text */
+    private String statement;
+
+    /** The number of rows affected, or a negative value when the driver does not report one */
+    private int rowCount;
+
+    /** The time to run the statement, or null when it was sent as part of a JDBC batch */
+    private Long elapsedMilliseconds;
+
+}
@@ -4,9 +4,8 @@
 import jakarta.activation.DataSource;
 import jakarta.activation.FileDataSource;
 import jakarta.annotation.PostConstruct;
-import jakarta.annotation.Resource;
-import jakarta.ejb.Asynchronous;
 import jakarta.ejb.Stateless;
+import jakarta.inject.Inject;
 import jakarta.mail.*;
 import jakarta.mail.internet.*;
 import java.io.File;
@@ -49,6 +48,11 @@
  *
  * emailSessionBean.sendTextEmail("to@example.com", "Subject", "Body");
  * }
+ *
+ * <p>
+ * The messages are not sent by the calling thread. They are added to the {@link MailOutboxBean} queue and sent by its
+ * worker over one reused SMTP connection, with retries and rate limiting.
+ * </p>
  */
 
 @Stateless
@@ -56,16 +60,18 @@ public class EmailSessionBean {
 
 	private static final Logger LOGGER = Logger.getLogger(EmailSessionBean.class.getName());
 
-	@Resource(name = "java:jboss/mail/Default")
+	@Inject
+	private MailOutboxBean outbox;
+
 	private Session defaultSession;
 
 	@PostConstruct
 	public void init() {
+		defaultSession = outbox.getSession();
 		// For Outlook email you need to enable starttls
 //		defaultSession.getProperties().setProperty("mail.smtp.starttls.enable","true");
 	}
 
-	@Asynchronous
 	public void sendTextEmail(String mailToAddresses, String mailSubject, String mailBody) {
 		try {
 			Message mailMessage = new MimeMessage(defaultSession);
@@ -73,8 +79,8 @@ public void sendTextEmail(String mailToAddresses, String mailSubject, String mai
 			mailMessage.setSubject(mailSubject);
 			mailMessage.setText(mailBody);
 
-			Transport.send(mailMessage);
-			final String logMessage = String.format("Text email set successfully to %s", mailToAddresses);
+			outbox.enqueue((MimeMessage) mailMessage);
+			final String logMessage = String.format("Text email queued for %s", mailToAddresses);
 			LOGGER.info(logMessage);
 		} catch (MessagingException e) {
 			final String logMessage = String.format("Failed to send text mail to %s: %s", mailToAddresses, e.getMessage());
@@ -82,7 +88,6 @@ public void sendTextEmail(String mailToAddresses, String mailSubject, String mai
 		}
 	}
 
-	@Asynchronous
 	public void sendHtmlEmail(String mailToAddresses, String mailSubject, String mailBody) {
 		try {
 			Message mailMessage = new MimeMessage(defaultSession);
@@ -94,8 +99,8 @@ public void sendHtmlEmail(String mailToAddresses, String mailSubject, String mai
 			multipart.addBodyPart(htmlPart);
 			mailMessage.setContent(multipart);
 
-			Transport.send(mailMessage);
-			final String logMessage = String.format("HTML email set successfully to %s", mailToAddresses);
+			outbox.enqueue((MimeMessage) mailMessage);
+			final String logMessage = String.format("HTML email queued for %s", mailToAddresses);
 			LOGGER.info(logMessage);
 		} catch (MessagingException e) {
 			final String logMessage = String.format("Failed to send text mail to %s: %s", mailToAddresses, e.getMessage());
@@ -103,7 +108,6 @@ public void sendHtmlEmail(String mailToAddresses, String mailSubject, String mai
 		}
 	}
 
-	@Asynchronous
 	public void sendHtmlEmailWithAttachments(String mailToAddresses, String mailSubject, String mailBody, String[] files) {
 		try {
 			Message mailMessage = new MimeMessage(defaultSession);
@@ -131,8 +135,8 @@ public void sendHtmlEmailWithAttachments(String mailToAddresses, String mailSubj
 			}
 
 			mailMessage.setContent(multipart);
-			Transport.send(mailMessage);
-			final String logMessage = String.format("HTML email with attachment sent to %s", mailToAddresses);
+			outbox.enqueue((MimeMessage) mailMessage);
+			final String logMessage = String.format("HTML email with attachment queued for %s", mailToAddresses);
 			LOGGER.info(logMessage);
 		} catch (MessagingException e) {
 			final String logMessage = String.format("Failed to send email with attachments to %s: %s", mailToAddresses, e.getMessage());
@@ -0,0 +1,135 @@
+package common.ejb;
+
+import common.mail.MailOutbox;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jakarta.annotation.Resource;
+import jakarta.ejb.ConcurrencyManagement;
+import jakarta.ejb.ConcurrencyManagementType;
+import jakarta.ejb.Singleton;
+import jakarta.ejb.Startup;
+import jakarta.enterprise.concurrent.ManagedScheduledExecutorService;
+import jakarta.enterprise.concurrent.ManagedThreadFactory;
+import jakarta.inject.Inject;
+import jakarta.mail.Session;
+import jakarta.mail.internet.MimeMessage;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+
+import java.nio.file.Path;
+import java.util.logging.Logger;
+
+/**
+ * Singleton session bean that owns the {@link MailOutbox} for the default mail session and runs its worker
+ * on a container managed thread.
+ * <p>
+ * The outbox can be tuned with the following entries in microprofile-config.properties:
+ * <pre>
+ * ca.dmit2015.config.mail.outbox.capacity=1000
+ * ca.dmit2015.config.mail.outbox.max_attempts=5
+ * ca.dmit2015.config.mail.outbox.initial_backoff_ms=1000
+ * ca.dmit2015.config.mail.outbox.messages_per_second=5
+ * ca.dmit2015.config.mail.outbox.idle_ms=30000
+ * ca.dmit2015.config.mail.outbox.enqueue_timeout_ms=1000
+ * ca.dmit2015.config.mail.outbox.undelivered_directory=${java.io.tmpdir}/dmit2015-mail-outbox
+ * ca.dmit2015.config.mail.outbox.dead_letter_directory=${java.io.tmpdir}/dmit2015-mail-outbox-dead-letter
+ * </pre>
+ */
+@Singleton
+@Startup
+@ConcurrencyManagement(ConcurrencyManagementType.BEAN)	// The outbox is thread-safe so no container locking is needed
+public class MailOutboxBean {
+
+	private static final Logger LOGGER = Logger.getLogger(MailOutboxBean.class.getName());
+
+	@Resource(name = "java:jboss/mail/Default")
+	private Session defaultSession;
+
+	@Resource
+	private ManagedThreadFactory threadFactory;
+
+	@Resource
+	private ManagedScheduledExecutorService retryScheduler;
+
+	@Inject
+	@ConfigProperty(name = "ca.dmit2015.config.mail.outbox.capacity", defaultValue = "1000")
+	private int capacity;
+
+	@Inject
+	@ConfigProperty(name = "ca.dmit2015.config.mail.outbox.max_attempts", defaultValue = "5")
+	private int maxAttempts;
+
+	@Inject
+	@ConfigProperty(name = "ca.dmit2015.config.mail.outbox.initial_backoff_ms", defaultValue = "1000")
+	private long initialBackoffMilliseconds;
+
+	@Inject
+	@ConfigProperty(name = "ca.dmit2015.config.mail.outbox.messages_per_second", defaultValue = "5")
+	private double messagesPerSecond;
+
+	@Inject
+	@ConfigProperty(name = "ca.dmit2015.config.mail.outbox.idle_ms", defaultValue = "30000")
+	private long idleMilliseconds;
+
+	@Inject
+	@ConfigProperty(name = "ca.dmit2015.config.mail.outbox.enqueue_timeout_ms", defaultValue = "1000")
+	private long enqueueTimeoutMilliseconds;
+
+	@Inject
+	@ConfigProperty(name = "ca.dmit2015.config.mail.outbox.undelivered_directory", defaultValue = "${java.io.tmpdir}/dmit2015-mail-outbox")
+	private String undeliveredDirectory;
+
+	@Inject
+	@ConfigProperty(name = "ca.dmit2015.config.mail.outbox.dead_letter_directory", defaultValue = "${java.io.tmpdir}/dmit2015-mail-outbox-dead-letter")
+	private String deadLetterDirectory;
+
+	private MailOutbox outbox;
+	private Thread worker;
+
+	@PostConstruct
+	public void start() {
+		outbox = new MailOutbox(defaultSession, retryScheduler, capacity, maxAttempts, initialBackoffMilliseconds,
+				messagesPerSecond, idleMilliseconds, enqueueTimeoutMilliseconds,
+				Path.of(undeliveredDirectory), Path.of(deadLetterDirectory));
+		// Send the messages that were not delivered before the application last stopped
+		int requeuedCount = outbox.requeueUndelivered();
+		if (requeuedCount > 0) {
+			LOGGER.info(String.format("Queued %d undelivered email messages", requeuedCount));
+		}
+		worker = threadFactory.newThread(outbox);
+		worker.setName("mail-outbox");
+		worker.start();
+	}
+
+	@PreDestroy
+	public void stop() {
+		outbox.stop();
+		worker.interrupt();
+	}
+
+	public Session getSession() {
+		return defaultSession;
+	}
+
+	/**
+	 * Queue the message to be sent by the outbox worker.
+	 *
+	 * @return true if the message was queued, false if it was saved as undelivered because the queue is full
+	 */
+	public boolean enqueue(MimeMessage message) {
+		return outbox.enqueue(message);
+	}
+
+	/**
+	 * Queue the messages that could not be delivered again.
+	 *
+	 * @return the number of messages queued
+	 */
+	public int retryUndelivered() {
+		return outbox.requeueUndelivered();
+	}
+
+	public int getQueueSize() {
+		return outbox.getQueueSize();
+	}
+
+}
@@ -0,0 +1,316 @@
+package common.mail;
+
+import jakarta.mail.Address;
+import jakarta.mail.Message;
+import jakarta.mail.MessagingException;
+import jakarta.mail.SendFailedException;
+import jakarta.mail.Session;
+import jakarta.mail.Transport;
+import jakarta.mail.internet.MimeMessage;
+import org.eclipse.angus.mail.smtp.SMTPAddressFailedException;
+import org.eclipse.angus.mail.smtp.SMTPSendFailedException;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import java.util.stream.Collectors;
+
+/**
+ * A bounded queue of mail messages that are sent by a single worker over one SMTP connection.
+ * <p>
+ * The worker connects the {@link Transport} when the first message arrives and keeps it connected while there are
+ * messages to send, so a burst of messages pays for one SMTP handshake instead of one per message. The connection is
+ * closed after the queue has been empty for `idleMilliseconds`.
+ * A message that can't be sent is retried up to `maxAttempts` times, doubling the delay after each attempt.
+ * This includes a message that the server rejected with a temporary (4xx) reply such as 451 for greylisting.
+ * The retry is scheduled with the `retryScheduler` so the worker keeps sending the other messages during the delay.
+ * At most `messagesPerSecond` messages are sent each second.
+ * <p>
+ * Messages that were not sent because the queue stayed full or the outbox was stopped are written as .eml files
+ * to the `undeliveredDirectory` and queued again by {@link #requeueUndelivered()}.
+ * Messages that the server rejected with a permanent (5xx) reply or that failed on every attempt are written to the `deadLetterDirectory`
+ * instead, which is never queued again. Move a file back to the `undeliveredDirectory` to send it again.
+ * <p>
+ * This class has no container dependencies so it can be tested with a Session that points to a local SMTP server.
+ */
+public class MailOutbox implements Runnable {
+
+    private static final Logger LOGGER = Logger.getLogger(MailOutbox.class.getName());
+
+    private static final String UNDELIVERED_FILE_SUFFIX = ".eml";
+
+    private final Session session;
+    private final BlockingQueue<OutboxMessage> queue;
+    private final ScheduledExecutorService retryScheduler;
+    private final int maxAttempts;
+    private final long initialBackoffMilliseconds;
+    private final long minimumSendIntervalMilliseconds;
+    private final long idleMilliseconds;
+    private final long enqueueTimeoutMilliseconds;
+    private final Path undeliveredDirectory;
+    private final Path deadLetterDirectory;
+
+    /**
+     * The messages that are waiting for their next attempt. A message is removed by the retry that queues it
+     * or by {@link #stop()} that saves it, whichever happens first.
+     */
+    private final Set<OutboxMessage> scheduledRetries = ConcurrentHashMap.newKeySet();
+
+    private volatile boolean running = true;
+    private Transport transport;
+    private long lastSendTime;
+
+    /**
+     * A message and the number of the attempt that sends it
+     */
+    private record OutboxMessage(MimeMessage message, int attempt) {
+    }
+
+    public MailOutbox(Session session, ScheduledExecutorService retryScheduler, int capacity, int maxAttempts,
+                      long initialBackoffMilliseconds, double messagesPerSecond, long idleMilliseconds,
+                      long enqueueTimeoutMilliseconds, Path undeliveredDirectory, Path deadLetterDirectory) {
+        this.session = session;
+        this.retryScheduler = retryScheduler;
+        this.queue = new LinkedBlockingQueue<>(capacity);
+        this.maxAttempts = maxAttempts;
+        this.initialBackoffMilliseconds = initialBackoffMilliseconds;
+        this.minimumSendIntervalMilliseconds = messagesPerSecond > 0 ? (long) (1000 / messagesPerSecond) : 0;
+        this.idleMilliseconds = idleMilliseconds;
+        this.enqueueTimeoutMilliseconds = enqueueTimeoutMilliseconds;
+        this.undeliveredDirectory = undeliveredDirectory;
+        this.deadLetterDirectory = deadLetterDirectory;
+    }
+
+    /**
+     * Add the message to the queue. If the queue is still full after waiting `enqueueTimeoutMilliseconds`
+     * the message is saved to the undelivered directory instead.
+     *
+     * @return true if the message was queued
+     */
+    public boolean enqueue(MimeMessage message) {
+        try {
+            if (running && queue.offer(new OutboxMessage(message, 1), enqueueTimeoutMilliseconds, TimeUnit.MILLISECONDS)) {
+                return true;
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        saveUndelivered(message);
+        return false;
+    }
+
+    public int getQueueSize() {
+        return queue.size();
+    }
+
+    /**
+     * Send queued messages until {@link #stop()} is called. This is run by the worker thread.
+     */
+    @Override
+    public void run() {
+        try {
+            while (running) {
+                OutboxMessage outboxMessage = queue.poll(idleMilliseconds, TimeUnit.MILLISECONDS);
+                if (outboxMessage == null) {
+                    closeTransport();
+                } else {
+                    sendOrScheduleRetry(outboxMessage);
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            closeTransport();
+        }
+    }
+
+    /**
+     * Stop the worker and save the messages that are still queued or waiting for a retry to the undelivered directory.
+     */
+    public void stop() {
+        running = false;
+        for (OutboxMessage outboxMessage : scheduledRetries) {
+            if (scheduledRetries.remove(outboxMessage)) {
+                saveUndelivered(outboxMessage.message());
+            }
+        }
+        OutboxMessage outboxMessage;
+        while ((outboxMessage = queue.poll()) != null) {
+            saveUndelivered(outboxMessage.message());
+        }
+    }
+
+    /**
+     * Queue the messages in the undelivered directory again and delete their files.
+     *
+     * @return the number of messages queued
+     */
+    public int requeueUndelivered() {
+        if (!Files.isDirectory(undeliveredDirectory)) {
+            return 0;
+        }
+        int requeuedCount = 0;
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(undeliveredDirectory, "*" + UNDELIVERED_FILE_SUFFIX)) {
+            for (Path file : files) {
+                MimeMessage message;
+                try (InputStream in = Files.newInputStream(file)) {
+                    message = new MimeMessage(session, in);
+                }
+                if (!queue.offer(new OutboxMessage(message, 1))) {
+                    break;
+                }
+                Files.delete(file);
+                requeuedCount++;
+            }
+        } catch (IOException | MessagingException e) {
+            LOGGER.log(Level.SEVERE, "Unable to read the undelivered mail messages", e);
+        }
+        return requeuedCount;
+    }
+
+    private void sendOrScheduleRetry(OutboxMessage outboxMessage) throws InterruptedException {
+        try {
+            waitForRateLimit();
+            send(outboxMessage.message());
+        } catch (InterruptedException e) {
+            // The outbox is stopping so keep the message for the next start
+            saveUndelivered(outboxMessage.message());
+            throw e;
+        } catch (MessagingException e) {
+            if (e instanceof SendFailedException sendFailedException && isPermanentFailure(sendFailedException)) {
+                // Sending the same message again will not help
+                LOGGER.log(Level.SEVERE, "The mail server rejected the message: " + e.getMessage());
+                saveDeadLetter(outboxMessage.message());
+                return;
+            }
+            LOGGER.log(Level.WARNING, String.format("Attempt %d of %d to send mail failed: %s", outboxMessage.attempt(), maxAttempts, e.getMessage()));
+            // Connect again on the next attempt in case the connection was dropped
+            closeTransport();
+            if (outboxMessage.attempt() < maxAttempts) {
+                scheduleRetry(outboxMessage);
+            } else {
+                saveDeadLetter(outboxMessage.message());
+            }
+        }
+    }
+
+    /**
+     * Return true if the server rejected the message or its addresses with a permanent (5xx) reply.
+     * A temporary (4xx) reply to the message or to any address means the message can be sent again later.
+     * Without a reply code the message is only rejected permanently if no valid address is left to send to.
+     */
+    private static boolean isPermanentFailure(SendFailedException e) {
+        boolean permanentReply = false;
+        for (Exception next = e; next != null; next = next instanceof MessagingException m ? m.getNextException() : null) {
+            int returnCode = -1;
+            if (next instanceof SMTPSendFailedException smtpSendFailedException) {
+                returnCode = smtpSendFailedException.getReturnCode();
+            } else if (next instanceof SMTPAddressFailedException smtpAddressFailedException) {
+                returnCode = smtpAddressFailedException.getReturnCode();
+            }
+            if (returnCode >= 400 && returnCode < 500) {
+                return false;
+            }
+            permanentReply |= returnCode >= 500;
+        }
+        Address[] validUnsentAddresses = e.getValidUnsentAddresses();
+        return permanentReply || validUnsentAddresses == null || validUnsentAddresses.length == 0;
+    }
+
+    /**
+     * Queue the message again after the backoff delay of its attempt.
+     */
+    private void scheduleRetry(OutboxMessage outboxMessage) {
+        long backoffMilliseconds = initialBackoffMilliseconds << Math.min(outboxMessage.attempt() - 1, 30);
+        var nextAttempt = new OutboxMessage(outboxMessage.message(), outboxMessage.attempt() + 1);
+        scheduledRetries.add(nextAttempt);
+        try {
+            retryScheduler.schedule(() -> {
+                if (scheduledRetries.remove(nextAttempt) && !(running && queue.offer(nextAttempt))) {
+                    saveUndelivered(nextAttempt.message());
+                }
+            }, backoffMilliseconds, TimeUnit.MILLISECONDS);
+        } catch (RejectedExecutionException e) {
+            // The scheduler is shutting down so keep the message for the next start
+            if (scheduledRetries.remove(nextAttempt)) {
+                saveUndelivered(nextAttempt.message());
+            }
+        }
+    }
+
+    private void send(MimeMessage message) throws MessagingException {
+        if (transport == null || !transport.isConnected()) {
+            transport = session.getTransport();
+            transport.connect();
+        }
+        // Transport.send does this for each message but sendMessage does not
+        message.saveChanges();
+        Address[] recipients = message.getAllRecipients();
+        transport.sendMessage(message, recipients);
+        LOGGER.info(String.format("Email sent successfully to %s", recipientList(message)));
+    }
+
+    private void waitForRateLimit() throws InterruptedException {
+        long waitMilliseconds = lastSendTime + minimumSendIntervalMilliseconds - System.currentTimeMillis();
+        if (waitMilliseconds > 0) {
+            Thread.sleep(waitMilliseconds);
+        }
+        lastSendTime = System.currentTimeMillis();
+    }
+
+    private void closeTransport() {
+        if (transport != null) {
+            try {
+                transport.close();
+            } catch (MessagingException e) {
+                LOGGER.log(Level.FINE, "Unable to close the mail transport", e);
+            }
+            transport = null;
+        }
+    }
+
+    private void saveUndelivered(MimeMessage message) {
+        saveMessage(message, undeliveredDirectory, "undelivered");
+    }
+
+    private void saveDeadLetter(MimeMessage message) {
+        saveMessage(message, deadLetterDirectory, "failed");
+    }
+
+    private static void saveMessage(MimeMessage message, Path directory, String description) {
+        try {
+            Files.createDirectories(directory);
+            Path file = directory.resolve(System.currentTimeMillis() + "-" + UUID.randomUUID() + UNDELIVERED_FILE_SUFFIX);
+            try (OutputStream out = Files.newOutputStream(file)) {
+                message.writeTo(out);
+            }
+            LOGGER.warning(String.format("Saved %s email to %s in %s", description, recipientList(message), file));
+        } catch (IOException | MessagingException e) {
+            LOGGER.log(Level.SEVERE, "Unable to save the " + description + " email", e);
+        }
+    }
+
+    private static String recipientList(Message message) {
+        try {
+            Address[] recipients = message.getAllRecipients();
+            return recipients == null ? "" : Arrays.stream(recipients).map(Address::toString).collect(Collectors.joining(","));
+        } catch (MessagingException e) {
+            return "";
+        }
+    }
+
+}
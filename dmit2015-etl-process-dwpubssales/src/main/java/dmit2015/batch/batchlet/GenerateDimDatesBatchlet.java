@@ -0,0 +1,126 @@
+package dmit2015.batch.batchlet;
+
+import jakarta.annotation.Resource;
+import jakarta.batch.api.AbstractBatchlet;
+import jakarta.batch.api.BatchProperty;
+import jakarta.batch.runtime.BatchStatus;
+import jakarta.batch.runtime.context.JobContext;
+import jakarta.batch.runtime.context.StepContext;
+import jakarta.enterprise.context.Dependent;
+import jakarta.inject.Inject;
+import jakarta.inject.Named;
+import jakarta.transaction.Transactional;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.format.TextStyle;
+import java.util.Locale;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * This Batchlet fills the DimDates table with one row for each day from the `start_date` to the `end_date`
+ * (inclusive). The day and month names are created in Java using the `locale` property and the rows
+ * are inserted using JDBC batches of `batch_size` rows, which replaces the row by row WHILE loop
+ * in pubs-etl-fill-DimDates.sql.
+ * <p>
+ * The properties use the ISO date format (yyyy-MM-dd) and a language tag for the locale (for example "en-CA").
+ */
+@Named
+@Dependent
+public class GenerateDimDatesBatchlet extends AbstractBatchlet {
+
+    private static final String INSERT_DIM_DATES = """
+            INSERT INTO dbo.DimDates([Date], [DateName], [Month], [MonthName], [Quarter], [QuarterName], [Year], [YearName])
+            VALUES (?, ?, ?, ?, ?, ?, ?, ?)
+            """;
+
+    private static final int DEFAULT_BATCH_SIZE = 1000;
+
+    @Inject
+    private JobContext _jobContext;
+
+    @Inject
+    private StepContext _stepContext;
+
+    @Inject
+    private Logger _logger;
+
+    @Resource(lookup = "java:app/datasources/MSSQLServerDWPubsSalesDS")
+    private DataSource _dataSource;
+
+    @Inject
+    @BatchProperty(name = "start_date")
+    private String startDate;
+
+    @Inject
+    @BatchProperty(name = "end_date")
+    private String endDate;
+
+    @Inject
+    @BatchProperty(name = "locale")
+    private String locale;
+
+    @Inject
+    @BatchProperty(name = "batch_size")
+    private String batchSize;
+
+    @Transactional
+    @Override
+    public String process() throws Exception {
+
+        try {
+            if (startDate == null || startDate.isBlank() || endDate == null || endDate.isBlank()) {
+                throw new IllegalArgumentException("The 'start_date' and 'end_date' batch properties must be set.");
+            }
+            LocalDate firstDate = LocalDate.parse(startDate.trim());
+            LocalDate lastDate = LocalDate.parse(endDate.trim());
+            if (lastDate.isBefore(firstDate)) {
+                throw new IllegalArgumentException("The 'end_date' batch property is before the 'start_date'.");
+            }
+            Locale dateLocale = locale == null || locale.isBlank() ? Locale.ENGLISH : Locale.forLanguageTag(locale.trim());
+            int rowsPerBatch = batchSize == null || batchSize.isBlank() ? DEFAULT_BATCH_SIZE : Integer.parseInt(batchSize.trim());
+
+            long startTime = System.currentTimeMillis();
+            int rowCount = 0;
+            try (Connection connection = _dataSource.getConnection();
+                 PreparedStatement statement = connection.prepareStatement(INSERT_DIM_DATES)) {
+                for (LocalDate date = firstDate; !date.isAfter(lastDate); date = date.plusDays(1)) {
+                    int quarter = (date.getMonthValue() - 1) / 3 + 1;
+                    String year = String.valueOf(date.getYear());
+                    statement.setTimestamp(1, Timestamp.valueOf(date.atStartOfDay()));
+                    statement.setString(2, date.getDayOfWeek().getDisplayName(TextStyle.FULL, dateLocale));
+                    statement.setInt(3, date.getMonthValue());
+                    statement.setString(4, date.getMonth().getDisplayName(TextStyle.FULL, dateLocale));
+                    statement.setInt(5, quarter);
+                    statement.setString(6, "Q" + quarter + " - " + year);
+                    statement.setInt(7, date.getYear());
+                    statement.setString(8, year);
+                    statement.addBatch();
+                    if (++rowCount % rowsPerBatch == 0) {
+                        statement.executeBatch();
+                    }
+                }
+                if (rowCount % rowsPerBatch != 0) {
+                    statement.executeBatch();
+                }
+            }
+
+            // The step listener reports this as the rows affected by the step
+            _stepContext.setPersistentUserData((long) rowCount);
+            _logger.log(Level.INFO, "Inserted {0} DimDates rows from {1} to {2} in {3} milliseconds",
+                    new Object[]{rowCount, firstDate, lastDate, System.currentTimeMillis() - startTime});
+            return BatchStatus.COMPLETED.toString();
+
+        } catch (Exception ex) {
+            String errorMessage = String.format("Batch job %s failed to complete.", _jobContext.getJobName());
+            _logger.log(Level.SEVERE, errorMessage, ex);
+            return BatchStatus.FAILED.toString();
+        }
+
+    }
+
+}
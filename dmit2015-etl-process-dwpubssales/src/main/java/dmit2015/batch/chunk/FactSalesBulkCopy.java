@@ -0,0 +1,47 @@
+package dmit2015.batch.chunk;
+
+import com.microsoft.sqlserver.jdbc.SQLServerBulkCopy;
+import com.microsoft.sqlserver.jdbc.SQLServerBulkCopyOptions;
+import com.microsoft.sqlserver.jdbc.SQLServerConnection;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.List;
+
+/**
+ * This class contains the code of {@link FactSalesItemWriter} that uses the SQL Server JDBC driver.
+ * It is only loaded after the writer has checked that the driver is available, so the writer can fall back
+ * to JDBC batch inserts when the driver is not deployed with the application.
+ */
+final class FactSalesBulkCopy {
+
+    static final String SQL_SERVER_CONNECTION_CLASS_NAME = "com.microsoft.sqlserver.jdbc.SQLServerConnection";
+
+    private FactSalesBulkCopy() {
+    }
+
+    static boolean isSqlServerConnection(Connection connection) throws SQLException {
+        return connection.isWrapperFor(SQLServerConnection.class);
+    }
+
+    /**
+     * Insert the FactSalesItem into dbo.FactSales with a table lock.
+     *
+     * @param batchSize the number of rows sent to the server in each batch; 0 sends every row in one batch
+     */
+    static void write(Connection connection, List<Object> items, int batchSize) throws SQLException {
+        SQLServerBulkCopyOptions options = new SQLServerBulkCopyOptions();
+        // A table lock lets the server use minimal logging and avoids taking a lock per row
+        options.setTableLock(true);
+        options.setBatchSize(batchSize);
+        try (SQLServerBulkCopy bulkCopy = new SQLServerBulkCopy(connection.unwrap(SQLServerConnection.class))) {
+            bulkCopy.setBulkCopyOptions(options);
+            bulkCopy.setDestinationTableName("dbo.FactSales");
+            for (int column = 1; column <= FactSalesBulkData.COLUMN_NAMES.size(); column++) {
+                bulkCopy.addColumnMapping(column, FactSalesBulkData.COLUMN_NAMES.get(column - 1));
+            }
+            bulkCopy.writeToServer(new FactSalesBulkData(items));
+        }
+    }
+
+}
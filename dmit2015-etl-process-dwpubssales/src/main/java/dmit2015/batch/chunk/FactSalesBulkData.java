@@ -0,0 +1,71 @@
+package dmit2015.batch.chunk;
+
+import com.microsoft.sqlserver.jdbc.ISQLServerBulkData;
+
+import java.sql.Types;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * This class lets SQLServerBulkCopy read a chunk of {@link FactSalesItem} directly from memory.
+ * The column ordinals start at 1 and are in the order of the FactSales table columns.
+ */
+class FactSalesBulkData implements ISQLServerBulkData {
+
+    static final List<String> COLUMN_NAMES = List.of("OrderNumber", "OrderDateKey", "TitleKey", "StoreKey", "SalesQuantity");
+
+    private final Iterator<Object> itemIterator;
+    private FactSalesItem currentItem;
+
+    FactSalesBulkData(List<Object> items) {
+        this.itemIterator = items.iterator();
+    }
+
+    @Override
+    public Set<Integer> getColumnOrdinals() {
+        return Set.of(1, 2, 3, 4, 5);
+    }
+
+    @Override
+    public String getColumnName(int column) {
+        return COLUMN_NAMES.get(column - 1);
+    }
+
+    @Override
+    public int getColumnType(int column) {
+        return column == 1 ? Types.NVARCHAR : Types.INTEGER;
+    }
+
+    @Override
+    public int getPrecision(int column) {
+        // OrderNumber is nvarchar(50) and the other columns are int
+        return column == 1 ? 50 : 10;
+    }
+
+    @Override
+    public int getScale(int column) {
+        return 0;
+    }
+
+    @Override
+    public Object[] getRowData() {
+        return new Object[]{
+                currentItem.getOrderNumber(),
+                currentItem.getOrderDateKey(),
+                currentItem.getTitleKey(),
+                currentItem.getStoreKey(),
+                currentItem.getSalesQuantity()
+        };
+    }
+
+    @Override
+    public boolean next() {
+        if (itemIterator.hasNext()) {
+            currentItem = (FactSalesItem) itemIterator.next();
+            return true;
+        }
+        return false;
+    }
+
+}
@@ -0,0 +1,25 @@
+package dmit2015.batch.chunk;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * A row to write to the DWPubsSales.dbo.FactSales table.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class FactSalesItem {
+
+    private String orderNumber;
+
+    private int orderDateKey;
+
+    private int titleKey;
+
+    private int storeKey;
+
+    private int salesQuantity;
+
+}
@@ -0,0 +1,94 @@
+package dmit2015.batch.chunk;
+
+import jakarta.annotation.Resource;
+import jakarta.batch.api.chunk.ItemProcessor;
+import jakarta.enterprise.context.Dependent;
+import jakarta.inject.Inject;
+import jakarta.inject.Named;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * This ItemProcessor converts a pubs.dbo.sales row into a FactSales row by looking up the
+ * TitleKey, StoreKey and DateKey surrogate keys.
+ * <p>
+ * The dimension tables are small so each one is read once into a map the first time an item is processed,
+ * instead of joining the dimension tables for every source row.
+ * Sales rows that do not have a matching dimension row are filtered out which matches the inner joins
+ * in pubs-etl-fill-FactSales.sql.
+ */
+@Named
+@Dependent
+public class FactSalesItemProcessor implements ItemProcessor {
+
+    @Inject
+    private Logger _logger;
+
+    @Resource(lookup = "java:app/datasources/MSSQLServerDWPubsSalesDS")
+    private DataSource _dataSource;
+
+    private Map<String, Integer> _titleKeyByTitleId;
+    private Map<String, Integer> _storeKeyByStoreId;
+    private Map<LocalDateTime, Integer> _dateKeyByDate;
+
+    @Override
+    public Object processItem(Object item) throws Exception {
+        if (_titleKeyByTitleId == null) {
+            loadDimensionKeys();
+        }
+
+        SalesItem salesItem = (SalesItem) item;
+        Integer titleKey = _titleKeyByTitleId.get(salesItem.getTitleId().trim());
+        Integer storeKey = _storeKeyByStoreId.get(salesItem.getStoreId().trim());
+        Integer dateKey = _dateKeyByDate.get(salesItem.getOrderDate());
+        if (titleKey == null || storeKey == null || dateKey == null) {
+            _logger.log(Level.FINE, "Skipping sales row without matching dimension rows: {0}", salesItem);
+            return null;
+        }
+
+        return new FactSalesItem(
+                salesItem.getOrderNumber(),
+                dateKey,
+                titleKey,
+                storeKey,
+                salesItem.getQuantity());
+    }
+
+    private void loadDimensionKeys() throws SQLException {
+        try (Connection connection = _dataSource.getConnection();
+             Statement statement = connection.createStatement()) {
+            _titleKeyByTitleId = new HashMap<>();
+            try (ResultSet resultSet = statement.executeQuery("SELECT TitleId, TitleKey FROM dbo.DimTitles")) {
+                while (resultSet.next()) {
+                    _titleKeyByTitleId.put(resultSet.getString(1).trim(), resultSet.getInt(2));
+                }
+            }
+
+            _storeKeyByStoreId = new HashMap<>();
+            try (ResultSet resultSet = statement.executeQuery("SELECT StoreId, StoreKey FROM dbo.DimStores")) {
+                while (resultSet.next()) {
+                    _storeKeyByStoreId.put(resultSet.getString(1).trim(), resultSet.getInt(2));
+                }
+            }
+
+            _dateKeyByDate = new HashMap<>();
+            try (ResultSet resultSet = statement.executeQuery("SELECT [Date], DateKey FROM dbo.DimDates")) {
+                while (resultSet.next()) {
+                    _dateKeyByDate.put(resultSet.getTimestamp(1).toLocalDateTime(), resultSet.getInt(2));
+                }
+            }
+        }
+        _logger.log(Level.INFO, "Loaded {0} title keys, {1} store keys and {2} date keys",
+                new Object[]{_titleKeyByTitleId.size(), _storeKeyByStoreId.size(), _dateKeyByDate.size()});
+    }
+
+}
@@ -0,0 +1,117 @@
+package dmit2015.batch.chunk;
+
+import jakarta.annotation.Resource;
+import jakarta.batch.api.BatchProperty;
+import jakarta.batch.api.chunk.AbstractItemReader;
+import jakarta.inject.Inject;
+import jakarta.inject.Named;
+import jakarta.enterprise.context.Dependent;
+
+import javax.sql.DataSource;
+import java.io.Serializable;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * This ItemReader reads the pubs.dbo.sales table through a single forward-only database cursor
+ * ordered by the primary key (stor_id, ord_num, title_id).
+ * <p>
+ * The key of the last row read is returned as the checkpoint. When a failed step is restarted the cursor is
+ * opened with a WHERE clause that skips every row up to and including the checkpoint key, so the rows from the
+ * chunks that were already committed are not read again.
+ */
+@Named
+@Dependent
+public class FactSalesItemReader extends AbstractItemReader {
+
+    private static final String SELECT_SALES = """
+            SELECT stor_id, ord_num, ord_date, qty, title_id
+            FROM pubs.dbo.sales
+            """;
+
+    private static final String AFTER_CHECKPOINT = """
+            WHERE stor_id > ?
+               OR (stor_id = ? AND ord_num > ?)
+               OR (stor_id = ? AND ord_num = ? AND title_id > ?)
+            """;
+
+    private static final String ORDER_BY_KEY = "ORDER BY stor_id, ord_num, title_id";
+
+    @Inject
+    private Logger _logger;
+
+    @Resource(lookup = "java:app/datasources/MSSQLServerDWPubsSalesDS")
+    private DataSource _dataSource;
+
+    @Inject
+    @BatchProperty(name = "fetch_size")
+    private String fetchSize;
+
+    private Connection _connection;
+    private PreparedStatement _statement;
+    private ResultSet _resultSet;
+
+    private SalesCheckpoint _checkpoint;
+
+    @Override
+    public void open(Serializable checkpoint) throws Exception {
+        _checkpoint = (SalesCheckpoint) checkpoint;
+
+        _connection = _dataSource.getConnection();
+        String sql = _checkpoint == null
+                ? SELECT_SALES + ORDER_BY_KEY
+                : SELECT_SALES + AFTER_CHECKPOINT + ORDER_BY_KEY;
+        // The cursor is read over many chunk transactions so it must stay open after each commit
+        _statement = _connection.prepareStatement(sql,
+                ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY, ResultSet.HOLD_CURSORS_OVER_COMMIT);
+        if (fetchSize != null && !fetchSize.isBlank()) {
+            _statement.setFetchSize(Integer.parseInt(fetchSize.trim()));
+        }
+        if (_checkpoint != null) {
+            _logger.log(Level.INFO, "Restarting pubs.dbo.sales read after {0}", _checkpoint);
+            _statement.setString(1, _checkpoint.getStoreId());
+            _statement.setString(2, _checkpoint.getStoreId());
+            _statement.setString(3, _checkpoint.getOrderNumber());
+            _statement.setString(4, _checkpoint.getStoreId());
+            _statement.setString(5, _checkpoint.getOrderNumber());
+            _statement.setString(6, _checkpoint.getTitleId());
+        }
+        _resultSet = _statement.executeQuery();
+    }
+
+    /**
+     * Return the next sales row or null when there are no more rows.
+     */
+    @Override
+    public Object readItem() throws Exception {
+        if (!_resultSet.next()) {
+            return null;
+        }
+        SalesItem item = new SalesItem(
+                _resultSet.getString("stor_id"),
+                _resultSet.getString("ord_num"),
+                _resultSet.getTimestamp("ord_date").toLocalDateTime(),
+                _resultSet.getInt("qty"),
+                _resultSet.getString("title_id"));
+        _checkpoint = new SalesCheckpoint(item.getStoreId(), item.getOrderNumber(), item.getTitleId());
+        return item;
+    }
+
+    @Override
+    public Serializable checkpointInfo() throws Exception {
+        return _checkpoint;
+    }
+
+    @Override
+    public void close() throws Exception {
+        try (Connection connection = _connection;
+             PreparedStatement statement = _statement;
+             ResultSet resultSet = _resultSet) {
+            // The try-with-resources statement closes the cursor, statement and connection in reverse order
+        }
+    }
+
+}
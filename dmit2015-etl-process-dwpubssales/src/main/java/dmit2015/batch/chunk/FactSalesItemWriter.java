@@ -0,0 +1,108 @@
+package dmit2015.batch.chunk;
+
+import jakarta.annotation.Resource;
+import jakarta.batch.api.BatchProperty;
+import jakarta.batch.api.chunk.AbstractItemWriter;
+import jakarta.batch.runtime.context.StepContext;
+import jakarta.enterprise.context.Dependent;
+import jakarta.inject.Inject;
+import jakarta.inject.Named;
+
+import javax.sql.DataSource;
+import java.io.Serializable;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.List;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * This ItemWriter inserts each chunk of FactSales rows using the SQL Server bulk copy API with a table lock.
+ * When the `use_bulk_copy` property is false, the SQL Server JDBC driver is not available, or the database is not
+ * SQL Server (for example H2 when testing locally), each chunk is inserted using a single JDBC batch instead.
+ * The connection is enlisted in the chunk transaction so the rows are committed together with the
+ * reader checkpoint.
+ */
+@Named
+@Dependent
+public class FactSalesItemWriter extends AbstractItemWriter {
+
+    private static final String INSERT_FACT_SALES = """
+            INSERT INTO dbo.FactSales(OrderNumber, OrderDateKey, TitleKey, StoreKey, SalesQuantity)
+            VALUES (?, ?, ?, ?, ?)
+            """;
+
+    /** The classes of the bulk copy API can only be used when the SQL Server JDBC driver is on the class path */
+    private static final boolean BULK_COPY_AVAILABLE = isClassAvailable(FactSalesBulkCopy.SQL_SERVER_CONNECTION_CLASS_NAME);
+
+    @Inject
+    private StepContext _stepContext;
+
+    @Inject
+    private Logger _logger;
+
+    @Resource(lookup = "java:app/datasources/MSSQLServerDWPubsSalesDS")
+    private DataSource _dataSource;
+
+    @Inject
+    @BatchProperty(name = "use_bulk_copy")
+    private String useBulkCopy;
+
+    /** The number of rows the bulk copy sends to the server in each batch; 0 sends the whole chunk in one batch */
+    @Inject
+    @BatchProperty(name = "bulk_copy_batch_size")
+    private String bulkCopyBatchSize;
+
+    private long _writeCount;
+
+    @Override
+    public void open(Serializable checkpoint) throws Exception {
+        _writeCount = checkpoint == null ? 0 : (Long) checkpoint;
+    }
+
+    @Override
+    public void writeItems(List<Object> items) throws Exception {
+        try (Connection connection = _dataSource.getConnection()) {
+            if (!"false".equalsIgnoreCase(useBulkCopy) && BULK_COPY_AVAILABLE && FactSalesBulkCopy.isSqlServerConnection(connection)) {
+                FactSalesBulkCopy.write(connection, items,
+                        bulkCopyBatchSize == null || bulkCopyBatchSize.isBlank() ? 0 : Integer.parseInt(bulkCopyBatchSize.trim()));
+            } else {
+                writeWithJdbcBatch(connection, items);
+            }
+        }
+        _writeCount += items.size();
+        _logger.log(Level.INFO, "[{0}] Wrote {1} rows ({2} total)",
+                new Object[]{_stepContext.getStepName(), items.size(), _writeCount});
+    }
+
+    private void writeWithJdbcBatch(Connection connection, List<Object> items) throws SQLException {
+        try (PreparedStatement statement = connection.prepareStatement(INSERT_FACT_SALES)) {
+            for (Object item : items) {
+                FactSalesItem factSalesItem = (FactSalesItem) item;
+                statement.setString(1, factSalesItem.getOrderNumber());
+                statement.setInt(2, factSalesItem.getOrderDateKey());
+                statement.setInt(3, factSalesItem.getTitleKey());
+                statement.setInt(4, factSalesItem.getStoreKey());
+                statement.setInt(5, factSalesItem.getSalesQuantity());
+                statement.addBatch();
+            }
+            statement.executeBatch();
+        }
+    }
+
+    @Override
+    public Serializable checkpointInfo() throws Exception {
+        return _writeCount;
+    }
+
+    private static boolean isClassAvailable(String className) {
+        try {
+            Class.forName(className, false, FactSalesItemWriter.class.getClassLoader());
+            return true;
+        } catch (ClassNotFoundException | LinkageError ex) {
+            return false;
+        }
+    }
+
+}
@@ -0,0 +1,21 @@
+package dmit2015.batch.chunk;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * A row to write to the DWPubsSales.dbo.FactTitlesAuthors table.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class FactTitleAuthorsItem {
+
+    private int titleKey;
+
+    private int authorKey;
+
+    private int authorOrder;
+
+}
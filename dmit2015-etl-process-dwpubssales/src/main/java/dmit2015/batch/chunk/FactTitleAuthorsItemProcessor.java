@@ -0,0 +1,73 @@
+package dmit2015.batch.chunk;
+
+import jakarta.annotation.Resource;
+import jakarta.batch.api.chunk.ItemProcessor;
+import jakarta.enterprise.context.Dependent;
+import jakarta.inject.Inject;
+import jakarta.inject.Named;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * This ItemProcessor converts a pubs.dbo.titleauthor row into a FactTitlesAuthors row by looking up the
+ * TitleKey and AuthorKey surrogate keys from maps that are loaded the first time an item is processed.
+ * Rows without a matching dimension row are filtered out, the same as an inner join with DimTitles and DimAuthors.
+ */
+@Named
+@Dependent
+public class FactTitleAuthorsItemProcessor implements ItemProcessor {
+
+    @Inject
+    private Logger _logger;
+
+    @Resource(lookup = "java:app/datasources/MSSQLServerDWPubsSalesDS")
+    private DataSource _dataSource;
+
+    private Map<String, Integer> _titleKeyByTitleId;
+    private Map<String, Integer> _authorKeyByAuthorId;
+
+    @Override
+    public Object processItem(Object item) throws Exception {
+        if (_titleKeyByTitleId == null) {
+            loadDimensionKeys();
+        }
+
+        TitleAuthorItem titleAuthorItem = (TitleAuthorItem) item;
+        Integer titleKey = _titleKeyByTitleId.get(titleAuthorItem.getTitleId().trim());
+        Integer authorKey = _authorKeyByAuthorId.get(titleAuthorItem.getAuthorId().trim());
+        if (titleKey == null || authorKey == null) {
+            _logger.log(Level.FINE, "Skipping titleauthor row without matching dimension rows: {0}", titleAuthorItem);
+            return null;
+        }
+
+        return new FactTitleAuthorsItem(titleKey, authorKey, titleAuthorItem.getAuthorOrder());
+    }
+
+    private void loadDimensionKeys() throws SQLException {
+        try (Connection connection = _dataSource.getConnection();
+             Statement statement = connection.createStatement()) {
+            _titleKeyByTitleId = new HashMap<>();
+            try (ResultSet resultSet = statement.executeQuery("SELECT TitleId, TitleKey FROM dbo.DimTitles")) {
+                while (resultSet.next()) {
+                    _titleKeyByTitleId.put(resultSet.getString(1).trim(), resultSet.getInt(2));
+                }
+            }
+
+            _authorKeyByAuthorId = new HashMap<>();
+            try (ResultSet resultSet = statement.executeQuery("SELECT AuthorId, AuthorKey FROM dbo.DimAuthors")) {
+                while (resultSet.next()) {
+                    _authorKeyByAuthorId.put(resultSet.getString(1).trim(), resultSet.getInt(2));
+                }
+            }
+        }
+    }
+
+}
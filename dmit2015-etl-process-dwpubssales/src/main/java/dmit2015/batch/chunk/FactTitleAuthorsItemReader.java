@@ -0,0 +1,117 @@
+package dmit2015.batch.chunk;
+
+import jakarta.annotation.Resource;
+import jakarta.batch.api.BatchProperty;
+import jakarta.batch.api.chunk.AbstractItemReader;
+import jakarta.enterprise.context.Dependent;
+import jakarta.inject.Inject;
+import jakarta.inject.Named;
+
+import javax.sql.DataSource;
+import java.io.Serializable;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * This ItemReader reads the pubs.dbo.titleauthor rows of one partition through a forward-only database cursor
+ * ordered by the primary key (title_id, au_id). A row belongs to partition `partition_number` when the
+ * hash of its title_id modulo `partition_count` is equal to the partition number, so every row of a title
+ * is read by the same partition.
+ * <p>
+ * The key of the last row read is returned as the checkpoint so a restarted partition skips the rows
+ * it has already committed.
+ */
+@Named
+@Dependent
+public class FactTitleAuthorsItemReader extends AbstractItemReader {
+
+    // CHECKSUM can return a negative value so the sign bit is cleared before taking the modulo
+    private static final String SELECT_TITLE_AUTHORS = """
+            SELECT title_id, au_id, au_ord
+            FROM pubs.dbo.titleauthor
+            WHERE (CHECKSUM(title_id) & 0x7FFFFFFF) % ? = ?
+            """;
+
+    private static final String AFTER_CHECKPOINT = """
+              AND (title_id > ? OR (title_id = ? AND au_id > ?))
+            """;
+
+    private static final String ORDER_BY_KEY = "ORDER BY title_id, au_id";
+
+    @Inject
+    private Logger _logger;
+
+    @Resource(lookup = "java:app/datasources/MSSQLServerDWPubsSalesDS")
+    private DataSource _dataSource;
+
+    @Inject
+    @BatchProperty(name = "partition_number")
+    private String partitionNumber;
+
+    @Inject
+    @BatchProperty(name = "partition_count")
+    private String partitionCount;
+
+    private Connection _connection;
+    private PreparedStatement _statement;
+    private ResultSet _resultSet;
+
+    private TitleAuthorCheckpoint _checkpoint;
+
+    @Override
+    public void open(Serializable checkpoint) throws Exception {
+        _checkpoint = (TitleAuthorCheckpoint) checkpoint;
+
+        _connection = _dataSource.getConnection();
+        String sql = _checkpoint == null
+                ? SELECT_TITLE_AUTHORS + ORDER_BY_KEY
+                : SELECT_TITLE_AUTHORS + AFTER_CHECKPOINT + ORDER_BY_KEY;
+        // The cursor is read over many chunk transactions so it must stay open after each commit
+        _statement = _connection.prepareStatement(sql,
+                ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY, ResultSet.HOLD_CURSORS_OVER_COMMIT);
+        _statement.setInt(1, Integer.parseInt(partitionCount.trim()));
+        _statement.setInt(2, Integer.parseInt(partitionNumber.trim()));
+        if (_checkpoint != null) {
+            _logger.log(Level.INFO, "Restarting partition {0} of pubs.dbo.titleauthor after {1}",
+                    new Object[]{partitionNumber, _checkpoint});
+            _statement.setString(3, _checkpoint.getTitleId());
+            _statement.setString(4, _checkpoint.getTitleId());
+            _statement.setString(5, _checkpoint.getAuthorId());
+        }
+        _resultSet = _statement.executeQuery();
+    }
+
+    /**
+     * Return the next titleauthor row of this partition or null when there are no more rows.
+     */
+    @Override
+    public Object readItem() throws Exception {
+        if (!_resultSet.next()) {
+            return null;
+        }
+        TitleAuthorItem item = new TitleAuthorItem(
+                _resultSet.getString("title_id"),
+                _resultSet.getString("au_id"),
+                _resultSet.getInt("au_ord"));
+        _checkpoint = new TitleAuthorCheckpoint(item.getTitleId(), item.getAuthorId());
+        return item;
+    }
+
+    @Override
+    public Serializable checkpointInfo() throws Exception {
+        return _checkpoint;
+    }
+
+    @Override
+    public void close() throws Exception {
+        try (Connection connection = _connection;
+             PreparedStatement statement = _statement;
+             ResultSet resultSet = _resultSet) {
+            // The try-with-resources statement closes the cursor, statement and connection in reverse order
+        }
+    }
+
+}
@@ -0,0 +1,44 @@
+package dmit2015.batch.chunk;
+
+import jakarta.annotation.Resource;
+import jakarta.batch.api.chunk.AbstractItemWriter;
+import jakarta.enterprise.context.Dependent;
+import jakarta.inject.Named;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.util.List;
+
+/**
+ * This ItemWriter inserts each chunk of FactTitlesAuthors rows using a single JDBC batch in the
+ * transaction of the partition's chunk.
+ */
+@Named
+@Dependent
+public class FactTitleAuthorsItemWriter extends AbstractItemWriter {
+
+    private static final String INSERT_FACT_TITLE_AUTHORS = """
+            INSERT INTO dbo.FactTitlesAuthors(TitleKey, AuthorKey, AuthorOrder)
+            VALUES (?, ?, ?)
+            """;
+
+    @Resource(lookup = "java:app/datasources/MSSQLServerDWPubsSalesDS")
+    private DataSource _dataSource;
+
+    @Override
+    public void writeItems(List<Object> items) throws Exception {
+        try (Connection connection = _dataSource.getConnection();
+             PreparedStatement statement = connection.prepareStatement(INSERT_FACT_TITLE_AUTHORS)) {
+            for (Object item : items) {
+                FactTitleAuthorsItem factTitleAuthorsItem = (FactTitleAuthorsItem) item;
+                statement.setInt(1, factTitleAuthorsItem.getTitleKey());
+                statement.setInt(2, factTitleAuthorsItem.getAuthorKey());
+                statement.setInt(3, factTitleAuthorsItem.getAuthorOrder());
+                statement.addBatch();
+            }
+            statement.executeBatch();
+        }
+    }
+
+}
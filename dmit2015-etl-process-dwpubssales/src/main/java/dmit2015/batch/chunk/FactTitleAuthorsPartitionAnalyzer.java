@@ -0,0 +1,78 @@
+package dmit2015.batch.chunk;
+
+import jakarta.annotation.Resource;
+import jakarta.batch.api.partition.AbstractPartitionAnalyzer;
+import jakarta.batch.runtime.BatchStatus;
+import jakarta.batch.runtime.context.StepContext;
+import jakarta.enterprise.context.Dependent;
+import jakarta.inject.Inject;
+import jakarta.inject.Named;
+
+import javax.sql.DataSource;
+import java.io.Serializable;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * This PartitionAnalyzer runs on the step thread and logs the progress of each partition of the
+ * FactTitlesAuthors load as the partitions commit their chunks.
+ * <p>
+ * When a partition finishes, the rows written by the partitions of this execution are stored in the persistent user
+ * data of the step, which the step listener reports as the rows affected and divides by the duration of this execution.
+ * After a restart the partitions that completed before the failure are not run again, so the rows in FactTitlesAuthors
+ * are also counted and logged to show the rows loaded by every execution of the step. That count is not used for the
+ * throughput because it includes rows that were written before this execution started.
+ */
+@Named
+@Dependent
+public class FactTitleAuthorsPartitionAnalyzer extends AbstractPartitionAnalyzer {
+
+    private static final String COUNT_FACT_TITLE_AUTHORS = "SELECT COUNT(*) FROM dbo.FactTitlesAuthors";
+
+    @Inject
+    private StepContext _stepContext;
+
+    @Inject
+    private Logger _logger;
+
+    @Resource(lookup = "java:app/datasources/MSSQLServerDWPubsSalesDS")
+    private DataSource _dataSource;
+
+    private final Map<Long, Long> _writeCountByPartition = new TreeMap<>();
+
+    @Override
+    public void analyzeCollectorData(Serializable data) throws Exception {
+        long[] partitionWriteCount = (long[]) data;
+        _writeCountByPartition.put(partitionWriteCount[0], partitionWriteCount[1]);
+        _logger.log(Level.INFO, "[{0}] Partition {1} has written {2} rows ({3} rows in all partitions of this execution)",
+                new Object[]{_stepContext.getStepName(), partitionWriteCount[0], partitionWriteCount[1], totalWriteCount()});
+    }
+
+    @Override
+    public void analyzeStatus(BatchStatus batchStatus, String exitStatus) throws Exception {
+        // The step listener reports this as the rows affected by this execution of the step
+        _stepContext.setPersistentUserData(totalWriteCount());
+        _logger.log(Level.INFO, "[{0}] FactTitlesAuthors has {1} rows",
+                new Object[]{_stepContext.getStepName(), countFactTitleAuthors()});
+    }
+
+    private long countFactTitleAuthors() throws SQLException {
+        try (Connection connection = _dataSource.getConnection();
+             Statement statement = connection.createStatement();
+             ResultSet resultSet = statement.executeQuery(COUNT_FACT_TITLE_AUTHORS)) {
+            resultSet.next();
+            return resultSet.getLong(1);
+        }
+    }
+
+    private long totalWriteCount() {
+        return _writeCountByPartition.values().stream().mapToLong(Long::longValue).sum();
+    }
+
+}
@@ -0,0 +1,39 @@
+package dmit2015.batch.chunk;
+
+import jakarta.batch.api.BatchProperty;
+import jakarta.batch.api.partition.PartitionCollector;
+import jakarta.batch.runtime.Metric;
+import jakarta.batch.runtime.context.StepContext;
+import jakarta.enterprise.context.Dependent;
+import jakarta.inject.Inject;
+import jakarta.inject.Named;
+
+import java.io.Serializable;
+
+/**
+ * This PartitionCollector runs on the partition thread after each chunk and sends the partition number and the
+ * number of rows the partition has written so far to the {@link FactTitleAuthorsPartitionAnalyzer}.
+ */
+@Named
+@Dependent
+public class FactTitleAuthorsPartitionCollector implements PartitionCollector {
+
+    @Inject
+    private StepContext _stepContext;
+
+    @Inject
+    @BatchProperty(name = "partition_number")
+    private String partitionNumber;
+
+    @Override
+    public Serializable collectPartitionData() throws Exception {
+        long writeCount = 0;
+        for (Metric metric : _stepContext.getMetrics()) {
+            if (metric.getType() == Metric.MetricType.WRITE_COUNT) {
+                writeCount = metric.getValue();
+            }
+        }
+        return new long[]{Long.parseLong(partitionNumber.trim()), writeCount};
+    }
+
+}
@@ -0,0 +1,61 @@
+package dmit2015.batch.chunk;
+
+import jakarta.batch.api.BatchProperty;
+import jakarta.batch.api.partition.PartitionMapper;
+import jakarta.batch.api.partition.PartitionPlan;
+import jakarta.batch.api.partition.PartitionPlanImpl;
+import jakarta.enterprise.context.Dependent;
+import jakarta.inject.Inject;
+import jakarta.inject.Named;
+
+import java.util.Properties;
+
+/**
+ * This PartitionMapper splits the pubs.dbo.titleauthor rows into `partition_count` hash buckets of title_id
+ * that are loaded by up to `threads` partitions at the same time.
+ * <p>
+ * The partition plan does not override the previous plan, so when a failed step is restarted only the
+ * partitions that did not complete are run again and each one continues from its own checkpoint.
+ */
+@Named
+@Dependent
+public class FactTitleAuthorsPartitionMapper implements PartitionMapper {
+
+    private static final int DEFAULT_PARTITION_COUNT = 4;
+
+    @Inject
+    @BatchProperty(name = "partition_count")
+    private String partitionCount;
+
+    @Inject
+    @BatchProperty(name = "threads")
+    private String threads;
+
+    @Override
+    public PartitionPlan mapPartitions() throws Exception {
+        int partitions = partitionCount == null || partitionCount.isBlank()
+                ? DEFAULT_PARTITION_COUNT
+                : Integer.parseInt(partitionCount.trim());
+        if (partitions < 1) {
+            throw new IllegalArgumentException("The 'partition_count' batch property must be greater than 0.");
+        }
+        int threadCount = threads == null || threads.isBlank()
+                ? partitions
+                : Math.min(partitions, Integer.parseInt(threads.trim()));
+
+        Properties[] partitionProperties = new Properties[partitions];
+        for (int partitionNumber = 0; partitionNumber < partitions; partitionNumber++) {
+            Properties properties = new Properties();
+            properties.setProperty("partition_number", String.valueOf(partitionNumber));
+            properties.setProperty("partition_count", String.valueOf(partitions));
+            partitionProperties[partitionNumber] = properties;
+        }
+
+        PartitionPlan partitionPlan = new PartitionPlanImpl();
+        partitionPlan.setPartitions(partitions);
+        partitionPlan.setThreads(threadCount);
+        partitionPlan.setPartitionProperties(partitionProperties);
+        return partitionPlan;
+    }
+
+}
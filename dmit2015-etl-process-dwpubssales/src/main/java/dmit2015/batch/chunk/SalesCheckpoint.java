@@ -0,0 +1,25 @@
+package dmit2015.batch.chunk;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.io.Serializable;
+
+/**
+ * The primary key of the last pubs.dbo.sales row read by the {@link FactSalesItemReader}.
+ * The batch runtime stores this in the job repository at each chunk commit so that a restarted step
+ * continues reading with the row after this key.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class SalesCheckpoint implements Serializable {
+
+    private String storeId;
+
+    private String orderNumber;
+
+    private String titleId;
+
+}
@@ -0,0 +1,27 @@
+package dmit2015.batch.chunk;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * A row read from the pubs.dbo.sales source table.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class SalesItem {
+
+    private String storeId;
+
+    private String orderNumber;
+
+    private LocalDateTime orderDate;
+
+    private int quantity;
+
+    private String titleId;
+
+}
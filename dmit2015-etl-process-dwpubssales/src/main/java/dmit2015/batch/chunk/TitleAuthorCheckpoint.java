@@ -0,0 +1,21 @@
+package dmit2015.batch.chunk;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.io.Serializable;
+
+/**
+ * The primary key of the last pubs.dbo.titleauthor row read by a partition of the {@link FactTitleAuthorsItemReader}.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class TitleAuthorCheckpoint implements Serializable {
+
+    private String titleId;
+
+    private String authorId;
+
+}
@@ -0,0 +1,21 @@
+package dmit2015.batch.chunk;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * A row read from the pubs.dbo.titleauthor source table.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class TitleAuthorItem {
+
+    private String titleId;
+
+    private String authorId;
+
+    private int authorOrder;
+
+}
@@ -1,11 +1,22 @@
 package dmit2015.batch.listener;
 
+import common.batch.SqlScriptResult;
+import dmit2015.batch.metrics.EtlStepMetrics;
+import dmit2015.entity.EtlStepRun;
+import dmit2015.repository.EtlStepRunRepository;
 import jakarta.batch.api.listener.StepListener;
+import jakarta.batch.runtime.BatchStatus;
+import jakarta.batch.runtime.Metric;
 import jakarta.batch.runtime.context.JobContext;
+import jakarta.batch.runtime.context.StepContext;
 import jakarta.enterprise.context.Dependent;
 import jakarta.inject.Inject;
 import jakarta.inject.Named;
 
+import java.io.Serializable;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
@@ -18,7 +29,9 @@
  * 	<listeners>
  * 		<listener ref="etlProcessForDwPubsSalesStepListener" />
  * 	</listeners>
- * }</pre
+ * }</pre>
+ * After each step the duration, rows affected, throughput and status are saved to the EtlStepRunHistory table
+ * and added to the in-memory {@link EtlStepMetrics} timers.
  */
 @Named
 @Dependent
@@ -27,14 +40,24 @@ public class EtlProcessForDwPubsSalesStepListener implements StepListener {
     @Inject
     private JobContext jobContext;
 
+    @Inject
+    private StepContext stepContext;
+
     @Inject
     private Logger logger;
 
+    @Inject
+    private EtlStepRunRepository stepRunRepository;
+
+    @Inject
+    private EtlStepMetrics stepMetrics;
+
     private long startTime;
 
     @Override
     public void beforeStep() {
-        logger.log(Level.INFO, "[{0}] beforeStep", jobContext.getJobName());
+        // Steps inside a split run at the same time so include the step name in each message
+        logger.log(Level.INFO, "[{0}:{1}] beforeStep", new Object[]{jobContext.getJobName(), stepContext.getStepName()});
         startTime = System.currentTimeMillis();
     }
 
@@ -43,9 +66,60 @@ public void afterStep() {
         long endTime = System.currentTimeMillis();
         long durationMilliseconds = endTime - startTime;
 
-        logger.log(Level.INFO, "[{0}] afterStep", jobContext.getJobName());
-        logger.log(Level.INFO, "[{0}] Step completed in {1} milliseconds",
-                new Object[]{jobContext.getJobName(), durationMilliseconds});
+        logger.log(Level.INFO, "[{0}:{1}] afterStep", new Object[]{jobContext.getJobName(), stepContext.getStepName()});
+        logger.log(Level.INFO, "[{0}:{1}] Step completed in {2} milliseconds",
+                new Object[]{jobContext.getJobName(), stepContext.getStepName(), durationMilliseconds});
+
+        Long rowsAffected = findRowsAffected();
+        Double rowsPerSecond = rowsAffected == null || durationMilliseconds == 0
+                ? null
+                : rowsAffected * 1000.0 / durationMilliseconds;
+        stepMetrics.record(jobContext.getJobName(), stepContext.getStepName(), durationMilliseconds, rowsAffected, rowsPerSecond);
+
+        EtlStepRun stepRun = new EtlStepRun();
+        stepRun.setJobName(jobContext.getJobName());
+        stepRun.setJobExecutionId(jobContext.getExecutionId());
+        stepRun.setStepName(stepContext.getStepName());
+        stepRun.setStartTime(toLocalDateTime(startTime));
+        stepRun.setEndTime(toLocalDateTime(endTime));
+        stepRun.setDurationMilliseconds(durationMilliseconds);
+        stepRun.setRowsAffected(rowsAffected);
+        stepRun.setRowsPerSecond(rowsPerSecond);
+        // The batch status of the step is still STARTED in afterStep so it is decided by whether the step threw an exception
+        BatchStatus batchStatus = stepContext.getException() == null ? BatchStatus.COMPLETED : BatchStatus.FAILED;
+        stepRun.setBatchStatus(batchStatus.name());
+        // The exit status is the batch status unless the step set its own exit status
+        stepRun.setExitStatus(stepContext.getExitStatus() != null ? stepContext.getExitStatus() : batchStatus.name());
+        try {
+            stepRunRepository.add(stepRun);
+        } catch (Exception ex) {
+            // The run history is for reporting only so it must not fail the step
+            logger.log(Level.WARNING, "Unable to save the step run history", ex);
+        }
+    }
+
+    /**
+     * Return the write count of a chunk step, or the row count a batchlet stored in the persistent user data
+     * of the step, or null if the step did not report a row count.
+     */
+    private Long findRowsAffected() {
+        for (Metric metric : stepContext.getMetrics()) {
+            if (metric.getType() == Metric.MetricType.WRITE_COUNT && metric.getValue() > 0) {
+                return metric.getValue();
+            }
+        }
+        Serializable persistentUserData = stepContext.getPersistentUserData();
+        if (persistentUserData instanceof SqlScriptResult scriptResult) {
+            return scriptResult.getTotalRowCount();
+        }
+        if (persistentUserData instanceof Number rowCount) {
+            return rowCount.longValue();
+        }
+        return null;
+    }
+
+    private static LocalDateTime toLocalDateTime(long epochMilliseconds) {
+        return LocalDateTime.ofInstant(Instant.ofEpochMilli(epochMilliseconds), ZoneId.systemDefault());
     }
 
 }
\ No newline at end of file
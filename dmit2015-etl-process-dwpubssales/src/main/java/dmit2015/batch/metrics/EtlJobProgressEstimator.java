@@ -0,0 +1,111 @@
+package dmit2015.batch.metrics;
+
+import common.batch.BatchJobProgressDto;
+import dmit2015.repository.EtlStepRunRepository;
+import jakarta.batch.operations.JobOperator;
+import jakarta.batch.runtime.BatchRuntime;
+import jakarta.batch.runtime.BatchStatus;
+import jakarta.batch.runtime.JobExecution;
+import jakarta.batch.runtime.JobInstance;
+import jakarta.batch.runtime.StepExecution;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.OptionalDouble;
+import java.util.stream.Collectors;
+
+/**
+ * This class estimates the progress of a running batch job from the durations of its previous runs.
+ * <p>
+ * The percent complete is the share of the average run time that belongs to the steps that have completed,
+ * so a long step counts for more than a short one. The remaining time is the average run time of the
+ * previous completed executions of the job minus the elapsed time, which accounts for steps that run
+ * at the same time inside a split.
+ */
+@ApplicationScoped
+public class EtlJobProgressEstimator {
+
+    /** The number of previous job instances used for the average run time */
+    private static final int PREVIOUS_RUN_COUNT = 10;
+
+    @Inject
+    private EtlStepRunRepository stepRunRepository;
+
+    public BatchJobProgressDto estimateProgress(long executionId) {
+        JobOperator jobOperator = BatchRuntime.getJobOperator();
+        JobExecution jobExecution = jobOperator.getJobExecution(executionId);
+        List<StepExecution> stepExecutions = jobOperator.getStepExecutions(executionId);
+
+        BatchJobProgressDto progress = new BatchJobProgressDto();
+        progress.setExecutionId(executionId);
+        progress.setJobName(jobExecution.getJobName());
+        progress.setBatchStatus(String.valueOf(jobExecution.getBatchStatus()));
+        progress.setExitStatus(jobExecution.getExitStatus());
+        progress.setStartTime(toLocalDateTime(jobExecution.getStartTime()));
+        progress.setEndTime(toLocalDateTime(jobExecution.getEndTime()));
+
+        List<String> completedStepNames = stepExecutions.stream()
+                .filter(stepExecution -> stepExecution.getBatchStatus() == BatchStatus.COMPLETED)
+                .map(StepExecution::getStepName)
+                .toList();
+        progress.setCompletedSteps(completedStepNames.size());
+        progress.setCurrentSteps(stepExecutions.stream()
+                .filter(stepExecution -> stepExecution.getBatchStatus() == BatchStatus.STARTING
+                        || stepExecution.getBatchStatus() == BatchStatus.STARTED)
+                .map(StepExecution::getStepName)
+                .collect(Collectors.toList()));
+
+        Map<String, Double> averageDurationByStep = stepRunRepository.findAverageDurationByStep(jobExecution.getJobName());
+        progress.setTotalSteps(Math.max(averageDurationByStep.size(), stepExecutions.size()));
+
+        boolean running = jobExecution.getEndTime() == null;
+        Date endTime = running ? new Date() : jobExecution.getEndTime();
+        long elapsedMilliseconds = jobExecution.getStartTime() == null ? 0 : endTime.getTime() - jobExecution.getStartTime().getTime();
+        progress.setElapsedMilliseconds(elapsedMilliseconds);
+
+        if (jobExecution.getBatchStatus() == BatchStatus.COMPLETED) {
+            progress.setPercentComplete(100.0);
+            progress.setEstimatedRemainingMilliseconds(0L);
+            return progress;
+        }
+
+        double totalAverageDuration = averageDurationByStep.values().stream().mapToDouble(Double::doubleValue).sum();
+        if (totalAverageDuration > 0) {
+            double completedAverageDuration = completedStepNames.stream()
+                    .mapToDouble(stepName -> averageDurationByStep.getOrDefault(stepName, 0.0))
+                    .sum();
+            progress.setPercentComplete(Math.min(100.0, completedAverageDuration * 100 / totalAverageDuration));
+        }
+
+        OptionalDouble averageJobDuration = findAverageJobDuration(jobOperator, jobExecution.getJobName(), executionId);
+        if (running && averageJobDuration.isPresent()) {
+            progress.setEstimatedRemainingMilliseconds(Math.max(0L, (long) averageJobDuration.getAsDouble() - elapsedMilliseconds));
+        }
+        return progress;
+    }
+
+    /**
+     * Return the average run time of the most recent completed executions of the job, not including `executionId`.
+     */
+    private OptionalDouble findAverageJobDuration(JobOperator jobOperator, String jobName, long executionId) {
+        List<JobInstance> jobInstances = jobOperator.getJobInstances(jobName, 0, PREVIOUS_RUN_COUNT);
+        return jobInstances.stream()
+                .flatMap(jobInstance -> jobOperator.getJobExecutions(jobInstance).stream())
+                .filter(jobExecution -> jobExecution.getExecutionId() != executionId
+                        && jobExecution.getBatchStatus() == BatchStatus.COMPLETED
+                        && jobExecution.getStartTime() != null
+                        && jobExecution.getEndTime() != null)
+                .mapToLong(jobExecution -> jobExecution.getEndTime().getTime() - jobExecution.getStartTime().getTime())
+                .average();
+    }
+
+    private static LocalDateTime toLocalDateTime(Date date) {
+        return date == null ? null : LocalDateTime.ofInstant(date.toInstant(), ZoneId.systemDefault());
+    }
+
+}
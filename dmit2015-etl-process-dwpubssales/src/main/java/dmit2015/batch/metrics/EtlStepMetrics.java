@@ -0,0 +1,31 @@
+package dmit2015.batch.metrics;
+
+import jakarta.enterprise.context.ApplicationScoped;
+
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * This class keeps an in-memory {@link EtlStepTimer} for each job step named "jobName.stepName".
+ * The step listener updates the timers and BatchJobResource returns them from /batch-jobs/metrics.
+ */
+@ApplicationScoped
+public class EtlStepMetrics {
+
+    private final ConcurrentMap<String, EtlStepTimer> timers = new ConcurrentHashMap<>();
+
+    public void record(String jobName, String stepName, long durationMilliseconds, Long rowsAffected, Double rowsPerSecond) {
+        timers.computeIfAbsent(jobName + "." + stepName, name -> new EtlStepTimer())
+                .update(durationMilliseconds, rowsAffected, rowsPerSecond);
+    }
+
+    /**
+     * Return the timers sorted by name.
+     */
+    public Map<String, EtlStepTimer> getTimers() {
+        return new TreeMap<>(timers);
+    }
+
+}
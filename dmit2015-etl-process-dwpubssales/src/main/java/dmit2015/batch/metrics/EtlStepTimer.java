@@ -0,0 +1,59 @@
+package dmit2015.batch.metrics;
+
+/**
+ * A timer for the runs of one step since the application started, similar to a MicroProfile Metrics timer,
+ * with gauges for the row count and throughput of the last run.
+ */
+public class EtlStepTimer {
+
+    private long count;
+    private long totalMilliseconds;
+    private long minMilliseconds = Long.MAX_VALUE;
+    private long maxMilliseconds;
+    private long lastMilliseconds;
+    private Long lastRowsAffected;
+    private Double lastRowsPerSecond;
+
+    synchronized void update(long durationMilliseconds, Long rowsAffected, Double rowsPerSecond) {
+        count++;
+        totalMilliseconds += durationMilliseconds;
+        minMilliseconds = Math.min(minMilliseconds, durationMilliseconds);
+        maxMilliseconds = Math.max(maxMilliseconds, durationMilliseconds);
+        lastMilliseconds = durationMilliseconds;
+        lastRowsAffected = rowsAffected;
+        lastRowsPerSecond = rowsPerSecond;
+    }
+
+    public synchronized long getCount() {
+        return count;
+    }
+
+    public synchronized long getTotalMilliseconds() {
+        return totalMilliseconds;
+    }
+
+    public synchronized long getMinMilliseconds() {
+        return count == 0 ? 0 : minMilliseconds;
+    }
+
+    public synchronized long getMaxMilliseconds() {
+        return maxMilliseconds;
+    }
+
+    public synchronized double getMeanMilliseconds() {
+        return count == 0 ? 0 : (double) totalMilliseconds / count;
+    }
+
+    public synchronized long getLastMilliseconds() {
+        return lastMilliseconds;
+    }
+
+    public synchronized Long getLastRowsAffected() {
+        return lastRowsAffected;
+    }
+
+    public synchronized Double getLastRowsPerSecond() {
+        return lastRowsPerSecond;
+    }
+
+}
@@ -0,0 +1,30 @@
+package dmit2015.dto;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+
+/**
+ * The options for starting the DWPubsSales ETL process from POST /batch-jobs/etl.
+ */
+@Data
+@NoArgsConstructor
+public class EtlJobRequestDto {
+
+    public enum Mode {
+        /** Truncate and reload every table using batchletETLProcessForDWPubsSales.xml */
+        FULL,
+        /** Merge changed dimension rows and append new fact rows using batchletIncrementalETLProcessForDWPubsSales.xml */
+        INCREMENTAL
+    }
+
+    private Mode mode = Mode.FULL;
+
+    /** The first date of the DimDates range for a full load */
+    private LocalDate startDate;
+
+    /** The last date of the DimDates range for a full load */
+    private LocalDate endDate;
+
+}
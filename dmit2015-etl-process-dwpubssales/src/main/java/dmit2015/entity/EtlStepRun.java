@@ -0,0 +1,48 @@
+package dmit2015.entity;
+
+import jakarta.persistence.Entity;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import lombok.Getter;
+import lombok.Setter;
+
+import java.time.LocalDateTime;
+
+/**
+ * The duration, row count and status of one step of an ETL job execution.
+ * The table is created by pubs-etl-create-run-history.sql.
+ */
+@Entity
+@Table(name = "EtlStepRunHistory")
+@Getter
+@Setter
+public class EtlStepRun {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    private String jobName;
+
+    private Long jobExecutionId;
+
+    private String stepName;
+
+    private LocalDateTime startTime;
+
+    private LocalDateTime endTime;
+
+    private long durationMilliseconds;
+
+    /** The number of rows written by the step, or null if the step does not report a row count */
+    private Long rowsAffected;
+
+    private Double rowsPerSecond;
+
+    private String batchStatus;
+
+    private String exitStatus;
+
+}
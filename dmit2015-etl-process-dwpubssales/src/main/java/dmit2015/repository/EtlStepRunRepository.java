@@ -0,0 +1,72 @@
+package dmit2015.repository;
+
+import dmit2015.entity.EtlStepRun;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.transaction.Transactional;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * This Jakarta Persistence class contains methods for recording and querying the ETL step run history.
+ */
+@ApplicationScoped
+public class EtlStepRunRepository {
+
+    @PersistenceContext
+    private EntityManager _entityManager;
+
+    /**
+     * Save the `newStepRun` in its own transaction so that it is kept even when the step failed.
+     */
+    @Transactional(Transactional.TxType.REQUIRES_NEW)
+    public void add(EtlStepRun newStepRun) {
+        _entityManager.persist(newStepRun);
+    }
+
+    public List<EtlStepRun> findByJobExecutionId(Long jobExecutionId) {
+        return _entityManager.createQuery(
+                        "SELECT s FROM EtlStepRun s WHERE s.jobExecutionId = :jobExecutionId ORDER BY s.startTime",
+                        EtlStepRun.class)
+                .setParameter("jobExecutionId", jobExecutionId)
+                .getResultList();
+    }
+
+    /**
+     * Return the most recent step runs, newest first.
+     *
+     * @param stepName only return runs of this step, or all steps when null
+     * @param maxResults the maximum number of step runs to return
+     */
+    public List<EtlStepRun> findRecent(String stepName, int maxResults) {
+        return _entityManager.createQuery("""
+                        SELECT s FROM EtlStepRun s
+                        WHERE :stepName IS NULL OR s.stepName = :stepName
+                        ORDER BY s.id DESC
+                        """, EtlStepRun.class)
+                .setParameter("stepName", stepName)
+                .setMaxResults(maxResults)
+                .getResultList();
+    }
+
+    /**
+     * Return the average duration in milliseconds of each step of the job named `jobName`, keyed by step name.
+     */
+    public Map<String, Double> findAverageDurationByStep(String jobName) {
+        Map<String, Double> averageDurationByStep = new LinkedHashMap<>();
+        _entityManager.createQuery("""
+                        SELECT s.stepName, AVG(s.durationMilliseconds) FROM EtlStepRun s
+                        WHERE s.jobName = :jobName
+                        GROUP BY s.stepName
+                        ORDER BY MIN(s.startTime)
+                        """, Object[].class)
+                .setParameter("jobName", jobName)
+                .getResultList()
+                .forEach(row -> averageDurationByStep.put((String) row[0], ((Number) row[1]).doubleValue()));
+        return averageDurationByStep;
+    }
+
+}
@@ -0,0 +1,34 @@
+-- Append only the sales on or after the last order date loaded. Orders from that same day may already be
+-- in FactSales so rows that already exist are skipped.
+Declare @LastOrderDate datetime = ( Select LastOrderDate From dbo.EtlHighWaterMarks Where [TableName] = 'FactSales' )
+
+Insert Into dbo.FactSales(OrderNumber, OrderDateKey, TitleKey, StoreKey, SalesQuantity)
+Select
+    [OrderNumber] = Cast(ord_num as nVarchar(50))
+     , [OrderDateKey] = DimDates.DateKey
+     , [TitleKey] = DimTitles.TitleKey
+     , [StoreKey] = DimStores.StoreKey
+     , [SalesQuantity] = qty
+From pubs.dbo.sales
+         JOIN DWPubsSales.dbo.DimDates
+              On pubs.dbo.sales.ord_date = DWPubsSales.dbo.DimDates.date
+         JOIN DWPubsSales.dbo.DimTitles
+              On pubs.dbo.sales.Title_id = DWPubsSales.dbo.DimTitles.TitleId
+         JOIN DWPubsSales.dbo.DimStores
+              On pubs.dbo.sales.Stor_id = DWPubsSales.dbo.DimStores.StoreId
+Where ( @LastOrderDate Is Null Or pubs.dbo.sales.ord_date >= @LastOrderDate )
+  And Not Exists ( Select *
+                   From dbo.FactSales
+                   Where FactSales.OrderNumber = Cast(ord_num as nVarchar(50))
+                     And FactSales.OrderDateKey = DimDates.DateKey
+                     And FactSales.TitleKey = DimTitles.TitleKey
+                     And FactSales.StoreKey = DimStores.StoreKey )
+
+Declare @RowCount int = @@RowCount
+
+Update dbo.EtlHighWaterMarks
+Set LastOrderDate = IsNull( ( Select Max(ord_date) From pubs.dbo.sales
+                              Where @LastOrderDate Is Null Or ord_date >= @LastOrderDate ), @LastOrderDate )
+  , LastRowCount = @RowCount
+  , LastLoadedTime = GetDate()
+Where [TableName] = 'FactSales'
@@ -0,0 +1,20 @@
+-- titleauthor has no date column so new rows are found by their primary key
+Insert Into dbo.FactTitlesAuthors(TitleKey, AuthorKey, AuthorOrder)
+Select
+    [TitleKey] = DimTitles.TitleKey
+     , [AuthorKey] = DimAuthors.AuthorKey
+     , [AuthorOrder] = au_ord
+From pubs.dbo.titleauthor
+         JOIN DWPubsSales.dbo.DimTitles
+              On pubs.dbo.titleauthor.Title_id = DWPubsSales.dbo.DimTitles.TitleId
+         JOIN DWPubsSales.dbo.DimAuthors
+              On pubs.dbo.titleauthor.Au_id = DWPubsSales.dbo.DimAuthors.AuthorId
+Where Not Exists ( Select *
+                   From dbo.FactTitlesAuthors
+                   Where FactTitlesAuthors.TitleKey = DimTitles.TitleKey
+                     And FactTitlesAuthors.AuthorKey = DimAuthors.AuthorKey )
+
+Update dbo.EtlHighWaterMarks
+Set LastRowCount = @@RowCount
+  , LastLoadedTime = GetDate()
+Where [TableName] = 'FactTitlesAuthors'
@@ -0,0 +1,20 @@
+-- The incremental ETL process keeps the last source value loaded for each fact table in this control table
+If Object_Id('dbo.EtlHighWaterMarks') Is Null
+    Create Table dbo.EtlHighWaterMarks (
+      [TableName] nVarchar(128) NOT NULL PRIMARY KEY
+    , [LastOrderDate] datetime NULL
+    , [LastRowCount] int NOT NULL Default 0
+    , [LastLoadedTime] datetime NOT NULL Default GetDate()
+    )
+
+-- Start from the data already in the warehouse the first time the incremental process runs
+Insert Into dbo.EtlHighWaterMarks ( [TableName], [LastOrderDate] )
+Select 'FactSales'
+     , ( Select Max(DimDates.[Date])
+         From dbo.FactSales
+                  Join dbo.DimDates On FactSales.OrderDateKey = DimDates.DateKey )
+Where Not Exists ( Select * From dbo.EtlHighWaterMarks Where [TableName] = 'FactSales' )
+
+Insert Into dbo.EtlHighWaterMarks ( [TableName] )
+Select 'FactTitlesAuthors'
+Where Not Exists ( Select * From dbo.EtlHighWaterMarks Where [TableName] = 'FactTitlesAuthors' )
@@ -0,0 +1,19 @@
+-- The ETL step listener saves the duration, rows affected and status of every step in this table
+If Object_Id('dbo.EtlStepRunHistory') Is Null
+Begin
+    Create Table dbo.EtlStepRunHistory (
+      [id] bigint NOT NULL PRIMARY KEY Identity
+    , [jobName] nVarchar(128) NOT NULL
+    , [jobExecutionId] bigint NOT NULL
+    , [stepName] nVarchar(128) NOT NULL
+    , [startTime] datetime2 NOT NULL
+    , [endTime] datetime2 NOT NULL
+    , [durationMilliseconds] bigint NOT NULL
+    , [rowsAffected] bigint NULL
+    , [rowsPerSecond] float NULL
+    , [batchStatus] nVarchar(20) NULL
+    , [exitStatus] nVarchar(128) NULL
+    )
+    Create Index IX_EtlStepRunHistory_jobExecutionId On dbo.EtlStepRunHistory ( [jobExecutionId] )
+    Create Index IX_EtlStepRunHistory_stepName On dbo.EtlStepRunHistory ( [stepName] )
+End
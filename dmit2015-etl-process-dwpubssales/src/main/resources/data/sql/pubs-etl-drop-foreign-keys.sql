@@ -1,7 +1,14 @@
 Alter Table [dbo].[DimTitles] Drop Constraint [FK_DimTitles_DimPublishers]
+GO
 Alter Table [dbo].[FactTitlesAuthors] Drop Constraint [FK_FactTitlesAuthors_DimAuthors]
+GO
 Alter Table [dbo].[FactTitlesAuthors] Drop Constraint [FK_FactTitlesAuthors_DimTitles]
+GO
 Alter Table [dbo].[FactSales] Drop Constraint [FK_FactSales_DimStores]
+GO
 Alter Table [dbo].[FactSales] Drop Constraint [FK_FactSales_DimTitles]
+GO
 Alter Table [dbo].[FactSales] Drop Constraint [FK_FactSales_DimDates]
+GO
 Alter Table [dbo].[DimTitles] Drop Constraint [FK_DimTitles_DimDates]
+GO
@@ -0,0 +1,33 @@
+-- Add the days after the last date in DimDates up to the latest order or publish date in pubs
+Declare @StartDate datetime = ( Select DateAdd(d, 1, Max([Date])) From dbo.DimDates Where DateKey > 0 )
+Declare @EndDate datetime = ( Select Cast( Max(LastDate) as date )
+                              From ( Select LastDate = Max(ord_date) From pubs.dbo.sales
+                                     Union All
+                                     Select Max(pubdate) From pubs.dbo.titles ) As SourceDates )
+
+If @StartDate Is Null
+    Set @StartDate = ( Select Cast( Min(ord_date) as date ) From pubs.dbo.sales )
+
+If @StartDate <= @EndDate
+Begin
+    -- Use a set based tally of day numbers instead of inserting one row per loop iteration
+    ;With DayNumbers ( DayNumber ) As (
+        Select Top ( DateDiff(d, @StartDate, @EndDate) + 1 ) Row_Number() Over ( Order By (Select Null) ) - 1
+        From sys.all_objects As a Cross Join sys.all_objects As b
+    )
+    , NewDates ( [Date] ) As (
+        Select DateAdd(d, DayNumber, @StartDate) From DayNumbers
+    )
+    Insert Into dbo.DimDates
+    ( [Date], [DateName], [Month], [MonthName], [Quarter], [QuarterName], [Year], [YearName] )
+    Select
+        [Date]
+         , DateName( weekday, [Date] )
+         , Month( [Date] )
+         , DateName( month, [Date] )
+         , DateName( quarter, [Date] )
+         , 'Q' + DateName( quarter, [Date] ) + ' - ' + Cast( Year([Date]) as nVarchar(50) )
+         , Year( [Date] )
+         , Cast( Year([Date]) as nVarchar(50) )
+    From NewDates
+End
@@ -0,0 +1,16 @@
+-- Slowly changing dimension type 1: overwrite changed rows and add new rows
+Merge Into dbo.DimAuthors As Target
+Using ( Select
+            [AuthorId] = Cast( au_id as nChar(11) )
+          , [AuthorName] = Cast( (au_fname + ' ' + au_lname) as nVarchar(100) )
+          , [AuthorState] = Cast( state as nChar(2) )
+        From pubs.dbo.authors ) As Source
+On Target.AuthorId = Source.AuthorId
+When Matched And Exists ( Select Source.AuthorName, Source.AuthorState
+                          Except
+                          Select Target.AuthorName, Target.AuthorState ) Then
+    Update Set AuthorName = Source.AuthorName
+             , AuthorState = Source.AuthorState
+When Not Matched By Target Then
+    Insert ( AuthorId, AuthorName, AuthorState )
+    Values ( Source.AuthorId, Source.AuthorName, Source.AuthorState );
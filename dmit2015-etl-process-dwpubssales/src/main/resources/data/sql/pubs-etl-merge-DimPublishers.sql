@@ -0,0 +1,14 @@
+-- Slowly changing dimension type 1: overwrite changed rows and add new rows
+Merge Into dbo.DimPublishers As Target
+Using ( Select
+            [PublisherId] = Cast( pub_id as nChar(4) )
+          , [PublisherName] = Cast( pub_name as nVarchar(50) )
+        From pubs.dbo.publishers ) As Source
+On Target.PublisherId = Source.PublisherId
+When Matched And Exists ( Select Source.PublisherName
+                          Except
+                          Select Target.PublisherName ) Then
+    Update Set PublisherName = Source.PublisherName
+When Not Matched By Target Then
+    Insert ( PublisherId, PublisherName )
+    Values ( Source.PublisherId, Source.PublisherName );
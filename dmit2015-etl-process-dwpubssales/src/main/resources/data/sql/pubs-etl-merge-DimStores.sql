@@ -0,0 +1,14 @@
+-- Slowly changing dimension type 1: overwrite changed rows and add new rows
+Merge Into dbo.DimStores As Target
+Using ( Select
+            [StoreId] = Cast( stor_id as nChar(4) )
+          , [StoreName] = Cast( stor_name as nVarchar(50) )
+        From pubs.dbo.stores ) As Source
+On Target.StoreId = Source.StoreId
+When Matched And Exists ( Select Source.StoreName
+                          Except
+                          Select Target.StoreName ) Then
+    Update Set StoreName = Source.StoreName
+When Not Matched By Target Then
+    Insert ( StoreId, StoreName )
+    Values ( Source.StoreId, Source.StoreName );
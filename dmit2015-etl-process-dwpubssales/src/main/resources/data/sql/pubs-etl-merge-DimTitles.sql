@@ -0,0 +1,26 @@
+-- Slowly changing dimension type 1: overwrite changed rows and add new rows
+Merge Into dbo.DimTitles As Target
+Using ( Select
+            [TitleId] = Cast( isNull( [title_id], -1 ) as nvarchar(6) )
+          , [TitleName] = Cast( isNull( [title], 'Unknown' ) as nvarchar(100) )
+          , [TitleType] = Cast( isNull( [type], 'Unknown' ) as nvarchar(50) )
+          , [PublisherKey] = [DWPubsSales].[dbo].[DimPublishers].[PublisherKey]
+          , [TitlePrice] = Cast( isNull( [price], -1 ) as decimal(18, 4) )
+          , [PublishedDateKey] = isNull( [DWPubsSales].[dbo].[DimDates].[DateKey], -1 )
+        From [Pubs].[dbo].[Titles]
+                 Join [DWPubsSales].[dbo].[DimPublishers]
+                      On [Pubs].[dbo].[Titles].[pub_id] = [DWPubsSales].[dbo].[DimPublishers].[PublisherId]
+                 Left Join [DWPubsSales].[dbo].[DimDates]
+                      On [Pubs].[dbo].[Titles].[pubdate] = [DWPubsSales].[dbo].[DimDates].[Date] ) As Source
+On Target.TitleId = Source.TitleId
+When Matched And Exists ( Select Source.TitleName, Source.TitleType, Source.PublisherKey, Source.TitlePrice, Source.PublishedDateKey
+                          Except
+                          Select Target.TitleName, Target.TitleType, Target.PublisherKey, Target.TitlePrice, Target.PublishedDateKey ) Then
+    Update Set TitleName = Source.TitleName
+             , TitleType = Source.TitleType
+             , PublisherKey = Source.PublisherKey
+             , TitlePrice = Source.TitlePrice
+             , PublishedDateKey = Source.PublishedDateKey
+When Not Matched By Target Then
+    Insert ( TitleId, TitleName, TitleType, PublisherKey, TitlePrice, PublishedDateKey )
+    Values ( Source.TitleId, Source.TitleName, Source.TitleType, Source.PublisherKey, Source.TitlePrice, Source.PublishedDateKey );
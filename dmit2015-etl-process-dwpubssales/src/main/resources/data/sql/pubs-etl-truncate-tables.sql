@@ -1,7 +1,18 @@
 Truncate Table dbo.FactSales
+GO
 Truncate Table dbo.FactTitlesAuthors
+GO
 Truncate Table dbo.DimTitles
+GO
 Truncate Table dbo.DimPublishers
+GO
 Truncate Table dbo.DimStores
+GO
 Truncate Table dbo.DimAuthors
+GO
 Truncate Table dbo.DimDates
+GO
+
+-- The incremental ETL process starts again from the reloaded data
+If Object_Id('dbo.EtlHighWaterMarks') Is Not Null Delete From dbo.EtlHighWaterMarks
+GO
@@ -0,0 +1,107 @@
+package common.batch;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SqlScriptParserTest {
+
+    @Test
+    void shouldSplitOnBatchSeparatorLines() throws IOException {
+        assertEquals(List.of("CREATE TABLE t (id INT)", "INSERT INTO t VALUES (1);\nINSERT INTO t VALUES (2);"),
+                parse(false, """
+                        CREATE TABLE t (id INT)
+                        GO
+                        INSERT INTO t VALUES (1);
+                        INSERT INTO t VALUES (2);
+                          go  -- end of the batch
+                        """));
+    }
+
+    @Test
+    void shouldSplitOnSemicolonsAndKeepThem() throws IOException {
+        assertEquals(List.of("INSERT INTO t VALUES (1);", "MERGE t USING s ON t.id = s.id WHEN MATCHED THEN DELETE;", "SELECT 2"),
+                parse(true, """
+                        INSERT INTO t VALUES (1); MERGE t USING s ON t.id = s.id WHEN MATCHED THEN DELETE;
+                        SELECT 2
+                        """));
+    }
+
+    @Test
+    void shouldNotSplitOnSeparatorsInStringLiterals() throws IOException {
+        String statement = "SELECT 'it''s; a\nGO\nstring', \"quoted;\"\" identifier\";";
+        assertEquals(List.of(statement, "SELECT 2;"),
+                parse(true, statement + "\nSELECT 2;\n"));
+    }
+
+    @Test
+    void shouldNotSplitOnSeparatorsInBracketIdentifiers() throws IOException {
+        assertEquals(List.of("SELECT [a;b] FROM [dbo].[t;1];"),
+                parse(true, "SELECT [a;b] FROM [dbo].[t;1];"));
+    }
+
+    @Test
+    void shouldNotSplitOnSeparatorsInLineComments() throws IOException {
+        assertEquals(List.of("SELECT 1 -- not the end; of the statement\n;"),
+                parse(true, """
+                        SELECT 1 -- not the end; of the statement
+                        ;
+                        """));
+    }
+
+    @Test
+    void shouldNotSplitOnSeparatorsInNestedBlockComments() throws IOException {
+        assertEquals(List.of("""
+                        SELECT 1 /* outer; /* inner; */
+                        GO
+                        still a comment; */""", "SELECT 2"),
+                parse(true, """
+                        SELECT 1 /* outer; /* inner; */
+                        GO
+                        still a comment; */
+                        GO
+                        SELECT 2
+                        """));
+    }
+
+    @Test
+    void shouldSkipStatementsWithOnlyComments() throws IOException {
+        assertEquals(List.of("SELECT 1;"),
+                parse(true, """
+                        -- A comment
+                        /* Another comment */
+                        GO
+                        SELECT 1;
+                        -- A trailing comment
+                        """));
+    }
+
+    @Test
+    void shouldRepeatStatementForBatchSeparatorCount() throws IOException {
+        assertEquals(List.of("INSERT INTO t DEFAULT VALUES", "INSERT INTO t DEFAULT VALUES", "INSERT INTO t DEFAULT VALUES", "SELECT 1"),
+                parse(false, """
+                        INSERT INTO t DEFAULT VALUES
+                        GO 3
+                        SELECT 1
+                        """));
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"GO 0", "GO 99999999999"})
+    void shouldRejectInvalidBatchSeparatorCount(String batchSeparator) {
+        assertThrows(IllegalArgumentException.class, () -> parse(false, "SELECT 1\n" + batchSeparator + "\n"));
+    }
+
+    private static List<String> parse(boolean splitOnSemicolons, String script) throws IOException {
+        List<String> statements = new ArrayList<>();
+        new SqlScriptParser(splitOnSemicolons).parse(new StringReader(script), statements::add);
+        return statements;
+    }
+}
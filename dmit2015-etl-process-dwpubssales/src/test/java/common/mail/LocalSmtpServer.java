@@ -0,0 +1,103 @@
+package common.mail;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * An in-process SMTP server for tests that accepts every message, counts the connections, and replies to each
+ * RCPT TO command with the next reply from {@link #rcptReplies}, or with {@link #defaultRcptReply} when there is none.
+ */
+class LocalSmtpServer implements AutoCloseable {
+
+    final Queue<String> rcptReplies = new ConcurrentLinkedQueue<>();
+
+    volatile String defaultRcptReply = "250 OK";
+
+    final AtomicInteger connectionCount = new AtomicInteger();
+
+    final AtomicInteger rcptCount = new AtomicInteger();
+
+    final List<String> receivedMessages = new CopyOnWriteArrayList<>();
+
+    private final ServerSocket serverSocket;
+
+    LocalSmtpServer() throws IOException {
+        serverSocket = new ServerSocket(0, 50, InetAddress.getLoopbackAddress());
+        Thread.ofVirtual().name("local-smtp-server").start(this::acceptConnections);
+    }
+
+    int getPort() {
+        return serverSocket.getLocalPort();
+    }
+
+    @Override
+    public void close() throws IOException {
+        serverSocket.close();
+    }
+
+    private void acceptConnections() {
+        try {
+            while (!serverSocket.isClosed()) {
+                Socket socket = serverSocket.accept();
+                connectionCount.incrementAndGet();
+                Thread.ofVirtual().start(() -> converse(socket));
+            }
+        } catch (IOException e) {
+            // The server was closed
+        }
+    }
+
+    private void converse(Socket socket) {
+        try (socket;
+             var in = new BufferedReader(new InputStreamReader(socket.getInputStream(), StandardCharsets.US_ASCII));
+             var out = new OutputStreamWriter(socket.getOutputStream(), StandardCharsets.US_ASCII)) {
+            reply(out, "220 localhost ESMTP");
+            String line;
+            while ((line = in.readLine()) != null) {
+                String command = line.length() < 4 ? line.toUpperCase() : line.substring(0, 4).toUpperCase();
+                switch (command) {
+                    case "EHLO", "HELO" -> reply(out, "250 localhost");
+                    case "RCPT" -> {
+                        rcptCount.incrementAndGet();
+                        String rcptReply = rcptReplies.poll();
+                        reply(out, rcptReply != null ? rcptReply : defaultRcptReply);
+                    }
+                    case "DATA" -> {
+                        reply(out, "354 End data with <CR><LF>.<CR><LF>");
+                        var message = new StringBuilder();
+                        while ((line = in.readLine()) != null && !line.equals(".")) {
+                            message.append(line).append("\r\n");
+                        }
+                        receivedMessages.add(message.toString());
+                        reply(out, "250 OK");
+                    }
+                    case "QUIT" -> {
+                        reply(out, "221 Bye");
+                        return;
+                    }
+                    case "MAIL", "RSET", "NOOP" -> reply(out, "250 OK");
+                    default -> reply(out, "502 Command not implemented");
+                }
+            }
+        } catch (IOException e) {
+            // The client closed the connection
+        }
+    }
+
+    private static void reply(Writer out, String reply) throws IOException {
+        out.write(reply + "\r\n");
+        out.flush();
+    }
+}
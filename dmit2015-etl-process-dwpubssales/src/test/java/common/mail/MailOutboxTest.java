@@ -0,0 +1,194 @@
+package common.mail;
+
+import jakarta.mail.Message;
+import jakarta.mail.MessagingException;
+import jakarta.mail.Session;
+import jakarta.mail.internet.InternetAddress;
+import jakarta.mail.internet.MimeMessage;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Properties;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.function.BooleanSupplier;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Send mail from the outbox to a {@link LocalSmtpServer} that can reply to each recipient with a temporary (4xx)
+ * or permanent (5xx) failure.
+ */
+class MailOutboxTest {
+
+    private static final long TIMEOUT_MILLISECONDS = 10_000;
+
+    @TempDir
+    private Path tempDirectory;
+
+    private LocalSmtpServer smtpServer;
+
+    private Session session;
+
+    private ScheduledThreadPoolExecutor retryScheduler;
+
+    private MailOutbox outbox;
+
+    private Thread worker;
+
+    @BeforeEach
+    void startSmtpServer() throws IOException {
+        smtpServer = new LocalSmtpServer();
+        var properties = new Properties();
+        properties.put("mail.transport.protocol", "smtp");
+        properties.put("mail.smtp.host", "localhost");
+        properties.put("mail.smtp.port", String.valueOf(smtpServer.getPort()));
+        session = Session.getInstance(properties);
+        retryScheduler = new ScheduledThreadPoolExecutor(1);
+    }
+
+    @AfterEach
+    void stopSmtpServer() throws Exception {
+        if (outbox != null) {
+            stopOutbox();
+        }
+        retryScheduler.shutdownNow();
+        smtpServer.close();
+    }
+
+    @Test
+    void shouldSendBurstOfMessagesOverOneConnection() throws Exception {
+        startOutbox(3, 1000);
+
+        for (int count = 1; count <= 3; count++) {
+            assertTrue(outbox.enqueue(createMessage("Message " + count)));
+        }
+
+        waitUntil(() -> smtpServer.receivedMessages.size() == 3);
+        assertEquals(1, smtpServer.connectionCount.get());
+    }
+
+    @Test
+    void shouldRetryAfterTemporaryFailure() throws Exception {
+        smtpServer.rcptReplies.add("451 4.7.1 Greylisted, try again later");
+        startOutbox(3, 10);
+
+        outbox.enqueue(createMessage("Greylisted"));
+
+        waitUntil(() -> smtpServer.receivedMessages.size() == 1);
+        assertEquals(2, smtpServer.rcptCount.get());
+        assertEquals(0, countFiles(deadLetterDirectory()));
+    }
+
+    @Test
+    void shouldSaveDeadLetterAfterPermanentFailure() throws Exception {
+        smtpServer.defaultRcptReply = "550 5.1.1 No such user";
+        startOutbox(3, 10);
+
+        outbox.enqueue(createMessage("Unknown user"));
+
+        waitUntil(() -> countFiles(deadLetterDirectory()) == 1);
+        assertEquals(1, smtpServer.rcptCount.get());
+        assertTrue(smtpServer.receivedMessages.isEmpty());
+    }
+
+    @Test
+    void shouldSaveDeadLetterAfterMaxAttempts() throws Exception {
+        smtpServer.defaultRcptReply = "452 4.2.2 Mailbox full";
+        startOutbox(2, 10);
+
+        outbox.enqueue(createMessage("Mailbox full"));
+
+        waitUntil(() -> countFiles(deadLetterDirectory()) == 1);
+        assertEquals(2, smtpServer.rcptCount.get());
+        assertTrue(smtpServer.receivedMessages.isEmpty());
+    }
+
+    @Test
+    void shouldSaveScheduledRetryWhenStopped() throws Exception {
+        smtpServer.rcptReplies.add("450 4.2.0 Mailbox busy");
+        // The retry is not due until long after the outbox is stopped
+        startOutbox(3, 3_600_000);
+
+        outbox.enqueue(createMessage("Waiting for retry"));
+        waitUntil(() -> retryScheduler.getQueue().size() == 1);
+        stopOutbox();
+
+        assertEquals(1, countFiles(undeliveredDirectory()));
+        assertEquals(0, countFiles(deadLetterDirectory()));
+    }
+
+    @Test
+    void shouldSendRequeuedUndeliveredMessages() throws Exception {
+        var stoppedOutbox = createOutbox(3, 10);
+        stoppedOutbox.stop();
+        // A stopped outbox saves each message as undelivered
+        assertFalse(stoppedOutbox.enqueue(createMessage("Saved while stopped")));
+        assertEquals(1, countFiles(undeliveredDirectory()));
+
+        startOutbox(3, 10);
+        assertEquals(1, outbox.requeueUndelivered());
+
+        waitUntil(() -> smtpServer.receivedMessages.size() == 1);
+        assertTrue(smtpServer.receivedMessages.getFirst().contains("Subject: Saved while stopped"));
+        assertEquals(0, countFiles(undeliveredDirectory()));
+    }
+
+    private MailOutbox createOutbox(int maxAttempts, long initialBackoffMilliseconds) {
+        return new MailOutbox(session, retryScheduler, 10, maxAttempts, initialBackoffMilliseconds,
+                0, 100, 100, undeliveredDirectory(), deadLetterDirectory());
+    }
+
+    private void startOutbox(int maxAttempts, long initialBackoffMilliseconds) {
+        outbox = createOutbox(maxAttempts, initialBackoffMilliseconds);
+        worker = Thread.ofPlatform().name("mail-outbox-test").start(outbox);
+    }
+
+    private void stopOutbox() throws InterruptedException {
+        outbox.stop();
+        worker.interrupt();
+        worker.join(TIMEOUT_MILLISECONDS);
+        outbox = null;
+    }
+
+    private MimeMessage createMessage(String subject) throws MessagingException {
+        var message = new MimeMessage(session);
+        message.setFrom(new InternetAddress("sender@example.com"));
+        message.setRecipients(Message.RecipientType.TO, "recipient@example.com");
+        message.setSubject(subject);
+        message.setText("Sent by " + MailOutboxTest.class.getSimpleName());
+        return message;
+    }
+
+    private Path undeliveredDirectory() {
+        return tempDirectory.resolve("undelivered");
+    }
+
+    private Path deadLetterDirectory() {
+        return tempDirectory.resolve("dead-letter");
+    }
+
+    private static long countFiles(Path directory) {
+        if (!Files.isDirectory(directory)) {
+            return 0;
+        }
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.count();
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    private static void waitUntil(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + TIMEOUT_MILLISECONDS;
+        while (!condition.getAsBoolean()) {
+            assertTrue(System.currentTimeMillis() < deadline, "Timed out waiting for the outbox");
+            Thread.sleep(10);
+        }
+    }
+}
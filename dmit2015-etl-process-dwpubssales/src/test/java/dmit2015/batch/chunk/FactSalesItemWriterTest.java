@@ -0,0 +1,115 @@
+package dmit2015.batch.chunk;
+
+import jakarta.batch.runtime.context.StepContext;
+import org.h2.jdbcx.JdbcDataSource;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.logging.Logger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * H2 is not SQL Server so the writer must insert each chunk with a JDBC batch whether or not bulk copy is enabled.
+ */
+class FactSalesItemWriterTest {
+
+    private JdbcDataSource dataSource;
+
+    private Connection keepAliveConnection;
+
+    @BeforeEach
+    void createFactSalesTable() throws Exception {
+        dataSource = new JdbcDataSource();
+        dataSource.setURL("jdbc:h2:mem:DWPubsSales;DB_CLOSE_DELAY=-1");
+        // The in-memory database is removed when its last connection is closed
+        keepAliveConnection = dataSource.getConnection();
+        try (Statement statement = keepAliveConnection.createStatement()) {
+            statement.execute("CREATE SCHEMA IF NOT EXISTS dbo");
+            statement.execute("DROP TABLE IF EXISTS dbo.FactSales");
+            statement.execute("""
+                    CREATE TABLE dbo.FactSales(
+                        OrderNumber NVARCHAR(50) NOT NULL,
+                        OrderDateKey INT NOT NULL,
+                        TitleKey INT NOT NULL,
+                        StoreKey INT NOT NULL,
+                        SalesQuantity INT NOT NULL)
+                    """);
+        }
+    }
+
+    @AfterEach
+    void closeDatabase() throws Exception {
+        try (Statement statement = keepAliveConnection.createStatement()) {
+            statement.execute("DROP ALL OBJECTS");
+        }
+        keepAliveConnection.close();
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"true", "false"})
+    void shouldInsertWithJdbcBatchWhenDatabaseIsNotSqlServer(String useBulkCopy) throws Exception {
+        FactSalesItemWriter writer = createWriter(useBulkCopy);
+        writer.open(null);
+
+        writer.writeItems(List.of(
+                new FactSalesItem("6871", 19940914, 1, 1, 5),
+                new FactSalesItem("722a", 19940913, 2, 1, 3)));
+        writer.writeItems(List.of(
+                new FactSalesItem("A2976", 19930524, 3, 2, 50)));
+
+        assertEquals(3L, writer.checkpointInfo());
+        assertEquals(List.of("6871:5", "722a:3", "A2976:50"), findFactSales());
+    }
+
+    @ParameterizedTest
+    @ValueSource(longs = {0, 10})
+    void shouldContinueWriteCountFromCheckpoint(long checkpoint) throws Exception {
+        FactSalesItemWriter writer = createWriter("true");
+        writer.open(checkpoint == 0 ? null : checkpoint);
+
+        writer.writeItems(List.of(new FactSalesItem("6871", 19940914, 1, 1, 5)));
+
+        assertEquals(checkpoint + 1, writer.checkpointInfo());
+    }
+
+    private FactSalesItemWriter createWriter(String useBulkCopy) throws Exception {
+        var writer = new FactSalesItemWriter();
+        setField(writer, "_dataSource", dataSource);
+        setField(writer, "_logger", Logger.getLogger(FactSalesItemWriterTest.class.getName()));
+        setField(writer, "_stepContext", Proxy.newProxyInstance(
+                StepContext.class.getClassLoader(),
+                new Class<?>[]{StepContext.class},
+                (proxy, method, args) -> method.getName().equals("getStepName") ? "fillFactSales" : null));
+        setField(writer, "useBulkCopy", useBulkCopy);
+        setField(writer, "bulkCopyBatchSize", "0");
+        return writer;
+    }
+
+    private static void setField(Object target, String fieldName, Object value) throws Exception {
+        Field field = target.getClass().getDeclaredField(fieldName);
+        field.setAccessible(true);
+        field.set(target, value);
+    }
+
+    private List<String> findFactSales() throws Exception {
+        List<String> rows = new ArrayList<>();
+        try (Statement statement = keepAliveConnection.createStatement();
+             ResultSet resultSet = statement.executeQuery("SELECT OrderNumber, SalesQuantity FROM dbo.FactSales ORDER BY OrderNumber")) {
+            while (resultSet.next()) {
+                rows.add(resultSet.getString(1) + ":" + resultSet.getInt(2));
+            }
+        }
+        return rows;
+    }
+
+}
@@ -16,6 +16,7 @@
 import java.io.Serializable;
 import java.math.BigDecimal;
 import java.time.LocalDate;
+import java.util.ArrayList;
 import java.util.List;
 
 /**
@@ -33,7 +34,8 @@ public TaskPriority[] getTaskPriorites() {
     @Inject
 //    @Named("memoryTaskService")
 //    @Named("firebaseHttpClientTaskService")
-    @Named("firebaseMultiTenantHttpClientTaskService")
+//    @Named("firebaseMultiTenantHttpClientTaskService")
+    @Named("firebaseMultiTenantAsyncHttpClientTaskService")
     private TaskService taskService;
 
     /**
@@ -43,6 +45,13 @@ public TaskPriority[] getTaskPriorites() {
     @Setter
     private Task selectedTask;
 
+    /**
+     * The Task instances selected with the checkboxes of the DataTable.
+     */
+    @Getter
+    @Setter
+    private List<Task> selectedTasks = new ArrayList<>();
+
     /**
      * The unique name of the selected Task instance.
      */
@@ -51,13 +60,13 @@ public TaskPriority[] getTaskPriorites() {
     private String selectedId;
 
     /**
-     * The list of Task objects fetched from the data source
+     * The lazy data model that fetches one page of Task at a time from the data source
      */
     @Getter
-    private List<Task> tasks;
+    private TaskLazyDataModel lazyTasks;
 
     /**
-     * Fetch all Task from the data source.
+     * Create the lazy data model that fetches the Task shown on each page from the data source.
      * <p>
      * If FacesContext message sent from init() method annotated with @PostConstruct in the Faces backing bean class are not shown on page:
      * 1) Remove the @PostConstruct annotation from the Faces backing bean class
@@ -69,11 +78,7 @@ public TaskPriority[] getTaskPriorites() {
      */
     @PostConstruct
     public void init() {
-        try {
-            tasks = taskService.getAllTasks();
-        } catch (Exception e) {
-            Messages.addGlobalError("Error getting tasks %s", e.getMessage());
-        }
+        lazyTasks = new TaskLazyDataModel(taskService);
     }
 
     /**
@@ -124,8 +129,8 @@ public void onSave() {
 
             }
 
-            // Fetch a list of objects from the data source
-            tasks = taskService.getAllTasks();
+            // Fetch the current page again from the data source when the DataTable is updated
+            lazyTasks.reset();
             PrimeFaces.current().ajax().update("dialogs:messages", "form:dt-Tasks");
 
             // Hide the PrimeFaces dialog
@@ -148,8 +153,8 @@ public void onDelete() {
             selectedId = selectedTask.getId();
             taskService.deleteTaskById(selectedId);
             Messages.addGlobalInfo("Delete was successful for id of {0}", selectedId);
-            // Fetch new data from the data source
-            tasks = taskService.getAllTasks();
+            // Fetch the current page again from the data source when the DataTable is updated
+            lazyTasks.reset();
 
             PrimeFaces.current().ajax().update("dialogs:messages", "form:dt-Tasks");
         } catch (RuntimeException ex) { // handle application generated exceptions
@@ -161,6 +166,77 @@ public void onDelete() {
 
     }
 
+    public boolean hasSelectedTasks() {
+        return selectedTasks != null && !selectedTasks.isEmpty();
+    }
+
+    /**
+     * Event handler for the Mark selected done button.
+     * Set done to true for every selected Task with one request to the data source.
+     */
+    public void onMarkSelectedDone() {
+        try {
+            // A selected row that could not be found is null and cannot be marked done
+            long skippedCount = selectedTasks.stream()
+                    .filter(task -> task == null || task.getId() == null)
+                    .count();
+            List<String> ids = selectedTasks.stream()
+                    .filter(task -> task != null && task.getId() != null && !task.isDone())
+                    .map(Task::getId)
+                    .toList();
+            // Only the done property is written so a change made by another user to the other properties is kept
+            List<String> markedIds = taskService.markTasksDone(ids);
+            // A Task that another user has deleted is not marked done
+            skippedCount += ids.size() - markedIds.size();
+            Messages.addGlobalInfo("{0} tasks marked done", markedIds.size());
+            if (skippedCount > 0) {
+                Messages.addGlobalWarn("{0} selected tasks were skipped because they could not be found", skippedCount);
+            }
+            selectedTasks = new ArrayList<>();
+            // Fetch the current page again from the data source when the DataTable is updated
+            lazyTasks.reset();
+
+            PrimeFaces.current().ajax().update("dialogs:messages", "form:dt-Tasks", "form:toolbar");
+        } catch (RuntimeException ex) { // handle application generated exceptions
+            Messages.addGlobalError(ex.getMessage());
+        } catch (Exception ex) {    // handle system generated exceptions
+            Messages.addGlobalError("Mark done not successful.");
+            handleException(ex);
+        }
+    }
+
+    /**
+     * Event handler for the Delete selected button.
+     * Delete every selected Task with one batch request to the data source.
+     */
+    public void onDeleteSelected() {
+        try {
+            // A selected row that could not be found is null and cannot be deleted
+            long skippedCount = selectedTasks.stream()
+                    .filter(task -> task == null || task.getId() == null)
+                    .count();
+            List<String> deletedIds = selectedTasks.stream()
+                    .filter(task -> task != null && task.getId() != null)
+                    .map(Task::getId)
+                    .toList();
+            taskService.applyBatch(List.of(), List.of(), deletedIds);
+            Messages.addGlobalInfo("{0} tasks deleted", deletedIds.size());
+            if (skippedCount > 0) {
+                Messages.addGlobalWarn("{0} selected tasks were skipped because they could not be found", skippedCount);
+            }
+            selectedTasks = new ArrayList<>();
+            // Fetch the current page again from the data source when the DataTable is updated
+            lazyTasks.reset();
+
+            PrimeFaces.current().ajax().update("dialogs:messages", "form:dt-Tasks", "form:toolbar");
+        } catch (RuntimeException ex) { // handle application generated exceptions
+            Messages.addGlobalError(ex.getMessage());
+        } catch (Exception ex) {    // handle system generated exceptions
+            Messages.addGlobalError("Delete not successful.");
+            handleException(ex);
+        }
+    }
+
     /**
      * This method is used to handle exceptions and display root cause to user.
      *
@@ -0,0 +1,275 @@
+package dmit2015.faces;
+
+import dmit2015.model.Task;
+import dmit2015.model.TaskQuery;
+import dmit2015.service.TaskService;
+import org.omnifaces.util.Messages;
+import org.primefaces.model.FilterMeta;
+import org.primefaces.model.LazyDataModel;
+import org.primefaces.model.SortMeta;
+import org.primefaces.model.SortOrder;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * This PrimeFaces LazyDataModel reads only the page of Task that is shown in the DataTable.
+ * <p>
+ * When the table is ordered by key, priority or done and filtered by at most one of priority or done,
+ * the ordering and filtering are done by the data source using a {@link TaskQuery}.
+ * Paging forward in key order continues after the last key of the previous page so only one page is read.
+ * Other pages are read from the start of the ordered results up to the end of the page.
+ * <p>
+ * Filtering by description or the global filter, and ordering by description, cannot be done by Firebase so every
+ * Task that matches the priority or done filter is read and the rest of the work is done in memory.
+ */
+public class TaskLazyDataModel extends LazyDataModel<Task> {
+
+    private static final String DESCRIPTION_FIELD = "description";
+    private static final String PRIORITY_FIELD = "priority";
+    private static final String DONE_FIELD = "done";
+
+    private final TaskService taskService;
+
+    /**
+     * The key of the last Task before each page offset when the Task are in ascending key order
+     */
+    private final Map<Integer, String> keyCursors = new HashMap<>();
+
+    /**
+     * The Task on the current page
+     */
+    private List<Task> pageTasks = List.of();
+
+    /**
+     * Every Task that has been loaded in this view, used to find the selected rows that can be on other pages
+     */
+    private final Map<String, Task> loadedTasksById = new HashMap<>();
+
+    /**
+     * The Task that were read to count the rows, which are used again by the load of the same request
+     */
+    private transient List<Task> countedTasks;
+
+    private transient String countedTasksKey;
+
+    public TaskLazyDataModel(TaskService taskService) {
+        this.taskService = taskService;
+    }
+
+    /**
+     * Forget the page cursors and read the data again. Call this after the data has been changed.
+     */
+    public void reset() {
+        keyCursors.clear();
+        loadedTasksById.clear();
+        countedTasks = null;
+        countedTasksKey = null;
+    }
+
+    @Override
+    public int count(Map<String, FilterMeta> filterBy) {
+        try {
+            TaskQuery query = toQuery(Map.of(), filterBy);
+            if (hasMemoryFilter(filterBy)) {
+                countedTasksKey = matchingTasksKey(query, filterBy);
+                countedTasks = findMatchingTasks(query, filterBy);
+                return countedTasks.size();
+            }
+            return (int) taskService.countTasks(query);
+        } catch (Exception e) {
+            Messages.addGlobalError("Error counting tasks {0}", e.getMessage());
+            return 0;
+        }
+    }
+
+    @Override
+    public List<Task> load(int first, int pageSize, Map<String, SortMeta> sortBy, Map<String, FilterMeta> filterBy) {
+        try {
+            TaskQuery query = toQuery(sortBy, filterBy);
+            SortMeta sortMeta = activeSort(sortBy);
+            boolean descending = sortMeta != null && sortMeta.getOrder() == SortOrder.DESCENDING;
+
+            if (hasMemoryFilter(filterBy) || query.hasFilter() || (sortMeta != null && toOrderBy(sortMeta.getField()) == null)) {
+                // Filter and sort every matching Task in memory
+                List<Task> matchingTasks = new ArrayList<>(findMatchingTasks(toQuery(Map.of(), filterBy), filterBy));
+                if (sortMeta != null) {
+                    Comparator<Task> comparator = toComparator(sortMeta.getField());
+                    matchingTasks.sort(descending ? comparator.reversed() : comparator);
+                }
+                pageTasks = page(matchingTasks, first, pageSize);
+            } else if (!descending && query.getOrderBy() == TaskQuery.OrderBy.KEY && keyCursors.containsKey(first)) {
+                // Read one page starting with the last key of the previous page
+                String cursorKey = keyCursors.get(first);
+                query.setStartAt(cursorKey);
+                query.setLimitToFirst(pageSize + 1);
+                pageTasks = taskService.findTasks(query)
+                        .stream()
+                        .filter(task -> !task.getId().equals(cursorKey))
+                        .limit(pageSize)
+                        .toList();
+            } else {
+                // Firebase cannot skip results so read up to the end of the page and skip the Task before the page
+                if (descending) {
+                    query.setLimitToLast(first + pageSize);
+                } else {
+                    query.setLimitToFirst(first + pageSize);
+                }
+                List<Task> orderedTasks = new ArrayList<>(taskService.findTasks(query));
+                if (descending) {
+                    Collections.reverse(orderedTasks);
+                }
+                pageTasks = page(orderedTasks, first, pageSize);
+            }
+
+            pageTasks.forEach(task -> loadedTasksById.put(task.getId(), task));
+
+            // Without a sort or filter the page is in ascending key order
+            if (sortMeta == null && !query.hasFilter() && !hasMemoryFilter(filterBy) && !pageTasks.isEmpty()) {
+                keyCursors.put(first + pageTasks.size(), pageTasks.getLast().getId());
+            }
+            return pageTasks;
+        } catch (Exception e) {
+            Messages.addGlobalError("Error getting tasks {0}", e.getMessage());
+            pageTasks = List.of();
+            return pageTasks;
+        } finally {
+            countedTasks = null;
+            countedTasksKey = null;
+        }
+    }
+
+    @Override
+    public String getRowKey(Task task) {
+        return task.getId();
+    }
+
+    /**
+     * Return the Task of a selected row. A row that was selected on another page, or before the data was reset,
+     * is read from the data source.
+     */
+    @Override
+    public Task getRowData(String rowKey) {
+        Task loadedTask = loadedTasksById.get(rowKey);
+        if (loadedTask != null) {
+            return loadedTask;
+        }
+        try {
+            Task task = taskService.getTaskById(rowKey).orElse(null);
+            if (task != null) {
+                loadedTasksById.put(rowKey, task);
+            }
+            return task;
+        } catch (Exception e) {
+            Messages.addGlobalError("Error getting task {0}", e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * Create the query that the data source can run for the sort and filters of the DataTable.
+     * Firebase can order by only one property, so a priority or done filter decides the order.
+     */
+    private TaskQuery toQuery(Map<String, SortMeta> sortBy, Map<String, FilterMeta> filterBy) {
+        var query = new TaskQuery();
+        String priorityFilter = filterValue(filterBy, PRIORITY_FIELD);
+        String doneFilter = filterValue(filterBy, DONE_FIELD);
+        if (priorityFilter != null) {
+            query.setOrderBy(TaskQuery.OrderBy.PRIORITY);
+            query.setEqualTo(priorityFilter);
+        } else if (doneFilter != null) {
+            query.setOrderBy(TaskQuery.OrderBy.DONE);
+            query.setEqualTo(doneFilter);
+        } else {
+            SortMeta sortMeta = activeSort(sortBy);
+            if (sortMeta != null && toOrderBy(sortMeta.getField()) != null) {
+                query.setOrderBy(toOrderBy(sortMeta.getField()));
+            }
+        }
+        return query;
+    }
+
+    private static SortMeta activeSort(Map<String, SortMeta> sortBy) {
+        return sortBy.values()
+                .stream()
+                .filter(sortMeta -> sortMeta.getOrder() != SortOrder.UNSORTED)
+                .findFirst()
+                .orElse(null);
+    }
+
+    private static TaskQuery.OrderBy toOrderBy(String field) {
+        return switch (field) {
+            case PRIORITY_FIELD -> TaskQuery.OrderBy.PRIORITY;
+            case DONE_FIELD -> TaskQuery.OrderBy.DONE;
+            default -> null;
+        };
+    }
+
+    private static Comparator<Task> toComparator(String field) {
+        return switch (field) {
+            case PRIORITY_FIELD -> Comparator.comparing(task -> task.getPriority() == null ? "" : task.getPriority().name());
+            case DONE_FIELD -> Comparator.comparing(Task::isDone);
+            default -> Comparator.comparing(task -> task.getDescription() == null ? "" : task.getDescription().toLowerCase(Locale.ROOT));
+        };
+    }
+
+    /**
+     * Return true if a filter is used that the data source cannot apply. Only one of priority or done can be
+     * filtered by Firebase, so when both are used the done filter is applied in memory.
+     */
+    private boolean hasMemoryFilter(Map<String, FilterMeta> filterBy) {
+        return filterValue(filterBy, DESCRIPTION_FIELD) != null
+                || filterValue(filterBy, FilterMeta.GLOBAL_FILTER_KEY) != null
+                || (filterValue(filterBy, PRIORITY_FIELD) != null && filterValue(filterBy, DONE_FIELD) != null);
+    }
+
+    /**
+     * Return every Task that matches the query and the filters that are applied in memory.
+     */
+    private List<Task> findMatchingTasks(TaskQuery query, Map<String, FilterMeta> filterBy) {
+        String key = matchingTasksKey(query, filterBy);
+        if (countedTasks != null && key.equals(countedTasksKey)) {
+            return countedTasks;
+        }
+        String descriptionFilter = filterValue(filterBy, DESCRIPTION_FIELD);
+        String globalFilter = filterValue(filterBy, FilterMeta.GLOBAL_FILTER_KEY);
+        String doneFilter = query.getOrderBy() == TaskQuery.OrderBy.DONE ? null : filterValue(filterBy, DONE_FIELD);
+        return taskService.findTasks(query)
+                .stream()
+                .filter(task -> doneFilter == null || task.isDone() == Boolean.parseBoolean(doneFilter))
+                .filter(task -> descriptionFilter == null || lowerCase(task.getDescription()).contains(lowerCase(descriptionFilter)))
+                .filter(task -> globalFilter == null
+                        || lowerCase(task.getDescription()).contains(lowerCase(globalFilter))
+                        || lowerCase(String.valueOf(task.getPriority())).contains(lowerCase(globalFilter)))
+                .toList();
+    }
+
+    private String matchingTasksKey(TaskQuery query, Map<String, FilterMeta> filterBy) {
+        return query + "|" + filterValue(filterBy, DESCRIPTION_FIELD) + "|" + filterValue(filterBy, FilterMeta.GLOBAL_FILTER_KEY)
+                + "|" + filterValue(filterBy, DONE_FIELD);
+    }
+
+    private static String filterValue(Map<String, FilterMeta> filterBy, String field) {
+        FilterMeta filterMeta = filterBy.get(field);
+        if (filterMeta == null || filterMeta.getFilterValue() == null) {
+            return null;
+        }
+        String value = String.valueOf(filterMeta.getFilterValue()).trim();
+        return value.isEmpty() ? null : value;
+    }
+
+    private static String lowerCase(String value) {
+        return value == null ? "" : value.toLowerCase(Locale.ROOT);
+    }
+
+    private static List<Task> page(List<Task> tasks, int first, int pageSize) {
+        int fromIndex = Math.min(first, tasks.size());
+        int toIndex = Math.min(first + pageSize, tasks.size());
+        return List.copyOf(tasks.subList(fromIndex, toIndex));
+    }
+}
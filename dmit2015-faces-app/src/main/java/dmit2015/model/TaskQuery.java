@@ -0,0 +1,185 @@
+package dmit2015.model;
+
+import jakarta.json.Json;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Objects;
+import java.util.function.Predicate;
+
+/**
+ * A query for Task that uses the same ordering and filtering as the Firebase Realtime Database REST API.
+ * The results are ordered by one property, can be filtered to a range or a single value of that property,
+ * and can be limited to the first or last number of results.
+ * <p>
+ * Firebase orders child values with null first, then false, then true, then strings.
+ * Task with the same value are ordered by key. The priority is stored as the name of the TaskPriority
+ * so ordering by priority is alphabetical (High, Low, Medium).
+ *
+ * @link <a href="https://firebase.google.com/docs/database/rest/retrieve-data#section-rest-filtering">Filtering Data</a>
+ */
+@Data
+@NoArgsConstructor
+public class TaskQuery {
+
+    public enum OrderBy {
+        KEY("$key"),
+        PRIORITY("priority"),
+        DONE("done");
+
+        private final String firebaseName;
+
+        OrderBy(String firebaseName) {
+            this.firebaseName = firebaseName;
+        }
+
+        public String getFirebaseName() {
+            return firebaseName;
+        }
+    }
+
+    private OrderBy orderBy = OrderBy.KEY;
+
+    /**
+     * Only include Task where the orderBy property is equal to this value
+     */
+    private String equalTo;
+
+    /**
+     * Only include Task where the orderBy property is greater than or equal to this value
+     */
+    private String startAt;
+
+    /**
+     * Only include Task where the orderBy property is less than or equal to this value
+     */
+    private String endAt;
+
+    /**
+     * The maximum number of Task to return from the start of the ordered results
+     */
+    private Integer limitToFirst;
+
+    /**
+     * The maximum number of Task to return from the end of the ordered results
+     */
+    private Integer limitToLast;
+
+    public TaskQuery(TaskQuery other) {
+        setOrderBy(other.getOrderBy());
+        setEqualTo(other.getEqualTo());
+        setStartAt(other.getStartAt());
+        setEndAt(other.getEndAt());
+        setLimitToFirst(other.getLimitToFirst());
+        setLimitToLast(other.getLimitToLast());
+    }
+
+    /**
+     * Return a copy of this query that returns every matching Task, which is used to count the results.
+     */
+    public TaskQuery withoutLimits() {
+        var query = new TaskQuery(this);
+        query.setLimitToFirst(null);
+        query.setLimitToLast(null);
+        return query;
+    }
+
+    public boolean hasFilter() {
+        return equalTo != null || startAt != null || endAt != null;
+    }
+
+    /**
+     * Return the Task that match this query in ascending order, which is what Firebase would return for the same query.
+     */
+    public List<Task> apply(Collection<Task> tasks) {
+        Comparator<Task> comparator = (task, other) -> compare(orderValue(task), orderValue(other));
+        if (orderBy != OrderBy.KEY) {
+            comparator = comparator.thenComparing(Task::getId);
+        }
+        List<Task> matchingTasks = tasks.stream()
+                .filter(matches())
+                .sorted(comparator)
+                .toList();
+        if (limitToFirst != null && matchingTasks.size() > limitToFirst) {
+            return matchingTasks.subList(0, limitToFirst);
+        }
+        if (limitToLast != null && matchingTasks.size() > limitToLast) {
+            return matchingTasks.subList(matchingTasks.size() - limitToLast, matchingTasks.size());
+        }
+        return matchingTasks;
+    }
+
+    /**
+     * Return the query parameters for the Firebase Realtime Database REST API starting with `&amp;`
+     * so they can be added after the `auth` parameter, or an empty string if this query returns every Task in key order.
+     */
+    public String toFirebaseQueryParameters() {
+        if (orderBy == OrderBy.KEY && !hasFilter() && limitToFirst == null && limitToLast == null) {
+            return "";
+        }
+        var queryParameters = new StringBuilder();
+        queryParameters.append("&orderBy=").append(encode(Json.createValue(orderBy.getFirebaseName()).toString()));
+        if (equalTo != null) {
+            queryParameters.append("&equalTo=").append(encode(toJsonValue(equalTo)));
+        }
+        if (startAt != null) {
+            queryParameters.append("&startAt=").append(encode(toJsonValue(startAt)));
+        }
+        if (endAt != null) {
+            queryParameters.append("&endAt=").append(encode(toJsonValue(endAt)));
+        }
+        if (limitToFirst != null) {
+            queryParameters.append("&limitToFirst=").append(limitToFirst);
+        }
+        if (limitToLast != null) {
+            queryParameters.append("&limitToLast=").append(limitToLast);
+        }
+        return queryParameters.toString();
+    }
+
+    private Predicate<Task> matches() {
+        return task -> {
+            Comparable<?> value = orderValue(task);
+            return (equalTo == null || Objects.equals(value, toOrderValue(equalTo)))
+                    && (startAt == null || compare(value, toOrderValue(startAt)) >= 0)
+                    && (endAt == null || compare(value, toOrderValue(endAt)) <= 0);
+        };
+    }
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private static int compare(Comparable value, Comparable other) {
+        if (value == null || other == null) {
+            return value == null ? (other == null ? 0 : -1) : 1;
+        }
+        return value.compareTo(other);
+    }
+
+    @SuppressWarnings("rawtypes")
+    private Comparable orderValue(Task task) {
+        return switch (orderBy) {
+            case KEY -> task.getId();
+            case PRIORITY -> task.getPriority() == null ? null : task.getPriority().name();
+            case DONE -> task.isDone();
+        };
+    }
+
+    @SuppressWarnings("rawtypes")
+    private Comparable toOrderValue(String value) {
+        return orderBy == OrderBy.DONE ? Boolean.valueOf(value) : value;
+    }
+
+    private String toJsonValue(String value) {
+        return orderBy == OrderBy.DONE
+                ? String.valueOf(Boolean.parseBoolean(value))
+                : Json.createValue(value).toString();
+    }
+
+    private static String encode(String value) {
+        return URLEncoder.encode(value, StandardCharsets.UTF_8);
+    }
+}
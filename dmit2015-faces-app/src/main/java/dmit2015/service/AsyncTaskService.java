@@ -0,0 +1,96 @@
+package dmit2015.service;
+
+import dmit2015.model.Task;
+import dmit2015.model.TaskQuery;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+
+/**
+ * A TaskService whose operations return a CompletableFuture so the caller can start several requests
+ * and wait for them together instead of waiting for each one in turn.
+ * <p>
+ * The blocking TaskService methods wait for the matching asynchronous method to complete.
+ */
+public interface AsyncTaskService extends TaskService {
+
+    CompletableFuture<Task> createTaskAsync(Task task);
+
+    CompletableFuture<Optional<Task>> getTaskByIdAsync(String id);
+
+    CompletableFuture<List<Task>> getAllTasksAsync();
+
+    CompletableFuture<Task> updateTaskAsync(Task task);
+
+    CompletableFuture<Void> deleteTaskByIdAsync(String id);
+
+    CompletableFuture<List<Task>> findTasksAsync(TaskQuery query);
+
+    CompletableFuture<Long> countTasksAsync(TaskQuery query);
+
+    CompletableFuture<Void> applyBatchAsync(List<Task> newTasks, List<Task> updatedTasks, List<String> deletedIds);
+
+    CompletableFuture<List<String>> markTasksDoneAsync(List<String> ids);
+
+    @Override
+    default Task createTask(Task task) {
+        return await(createTaskAsync(task));
+    }
+
+    @Override
+    default Optional<Task> getTaskById(String id) {
+        return await(getTaskByIdAsync(id));
+    }
+
+    @Override
+    default List<Task> getAllTasks() {
+        return await(getAllTasksAsync());
+    }
+
+    @Override
+    default Task updateTask(Task task) {
+        return await(updateTaskAsync(task));
+    }
+
+    @Override
+    default void deleteTaskById(String id) {
+        await(deleteTaskByIdAsync(id));
+    }
+
+    @Override
+    default List<Task> findTasks(TaskQuery query) {
+        return await(findTasksAsync(query));
+    }
+
+    @Override
+    default long countTasks(TaskQuery query) {
+        return await(countTasksAsync(query));
+    }
+
+    @Override
+    default void applyBatch(List<Task> newTasks, List<Task> updatedTasks, List<String> deletedIds) {
+        await(applyBatchAsync(newTasks, updatedTasks, deletedIds));
+    }
+
+    @Override
+    default List<String> markTasksDone(List<String> ids) {
+        return await(markTasksDoneAsync(ids));
+    }
+
+    /**
+     * Wait for the future to complete and return its result.
+     * A RuntimeException that completed the future is thrown as is instead of wrapped in a CompletionException.
+     */
+    static <T> T await(CompletableFuture<T> future) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            throw new RuntimeException(e.getCause());
+        }
+    }
+}
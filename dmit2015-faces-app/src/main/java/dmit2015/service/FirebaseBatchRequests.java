@@ -0,0 +1,67 @@
+package dmit2015.service;
+
+import dmit2015.model.Task;
+import jakarta.json.Json;
+import jakarta.json.JsonObject;
+import jakarta.json.bind.Jsonb;
+
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * This class creates the body of a multi-path PATCH request to the Firebase Realtime Database REST API.
+ * Each name in the body is a path relative to the URL of the request, so one request can change many Task
+ * and Firebase applies all the changes or none of them.
+ *
+ * @link <a href="https://firebase.google.com/docs/database/rest/save-data#section-patch">Updating Data with PATCH</a>
+ */
+final class FirebaseBatchRequests {
+
+    private FirebaseBatchRequests() {
+    }
+
+    /**
+     * Each new Task is written with its new key, each updated Task replaces the existing Task, and the value null deletes a Task.
+     */
+    static String toBatchRequestBody(Jsonb jsonb, List<Task> newTasks, List<String> newIds, List<Task> updatedTasks, List<String> deletedIds) {
+        var requestBodyBuilder = Json.createObjectBuilder();
+        for (int index = 0; index < newTasks.size(); index++) {
+            var newTask = Task.copyOf(newTasks.get(index));
+            newTask.setId(newIds.get(index));
+            requestBodyBuilder.add(newTask.getId(), jsonb.fromJson(jsonb.toJson(newTask), JsonObject.class));
+        }
+        for (Task updatedTask : updatedTasks) {
+            requestBodyBuilder.add(updatedTask.getId(), jsonb.fromJson(jsonb.toJson(updatedTask), JsonObject.class));
+        }
+        for (String deletedId : deletedIds) {
+            requestBodyBuilder.addNull(deletedId);
+        }
+        return requestBodyBuilder.build().toString();
+    }
+
+    /**
+     * Return the ids of `ids` that are the id of a Task in `currentTasks`.
+     * Writing a property of a Task that another session has deleted would create a node with only that property,
+     * so the ids of a request that writes single properties are filtered against the current Task first.
+     */
+    static List<String> existingIds(List<String> ids, List<Task> currentTasks) {
+        Set<String> currentIds = currentTasks.stream()
+                .map(Task::getId)
+                .collect(Collectors.toSet());
+        return ids.stream()
+                .filter(currentIds::contains)
+                .toList();
+    }
+
+    /**
+     * Only the done property of each Task is written, so a change made to another property since the Task was read is kept.
+     */
+    static String toMarkDoneRequestBody(List<String> ids) {
+        var requestBodyBuilder = Json.createObjectBuilder();
+        for (String id : ids) {
+            requestBodyBuilder.add(id + "/done", true);
+        }
+        return requestBodyBuilder.build().toString();
+    }
+}
@@ -1,10 +1,12 @@
 package dmit2015.service;
 
 import dmit2015.model.Task;
+import dmit2015.model.TaskQuery;
 import jakarta.annotation.PostConstruct;
 import jakarta.enterprise.context.ApplicationScoped;
 import jakarta.inject.Inject;
 import jakarta.inject.Named;
+import jakarta.json.Json;
 import jakarta.json.JsonObject;
 import jakarta.json.bind.Jsonb;
 import jakarta.json.bind.JsonbBuilder;
@@ -175,6 +177,88 @@ public List<Task> getAllTasks() {
         return List.of();
     }
 
+    /**
+     * Send a query to the Firebase Realtime Database REST API so only the matching Task are downloaded.
+     * Firebase returns the results in no particular order so they are sorted after they are received.
+     * <p>
+     * Each property used to order the results must be indexed in the Firebase Realtime Database Rules:
+     * <p>
+     * {
+     * "rules": {
+     * "Task": {
+     * ".indexOn": ["priority", "done"]
+     * }
+     * }
+     * }
+     */
+    @Override
+    public List<Task> findTasks(TaskQuery query) {
+        // Build the url path with the query parameters, which start with & because they are usually added after the auth parameter
+        String jsonQueryPath = String.format("%s/%s.json%s",
+                firebaseRtdbBaseUrl,
+                Task.class.getSimpleName(),
+                query.toFirebaseQueryParameters().replaceFirst("^&", "?"));
+        var httpRequest = HttpRequest.newBuilder()
+                .uri(URI.create(jsonQueryPath))
+                .header("Content-Type", "application/json")
+                .GET()
+                .build();
+        try {
+            var httpResponse = httpClient.send(httpRequest, HttpResponse.BodyHandlers.ofString());
+            if (httpResponse.statusCode() == 200) {
+                // Convert the responseBodyJson to an LinkedHashMap<String, Task>
+                LinkedHashMap<String, Task> responseData = jsonb.fromJson(httpResponse.body(), new LinkedHashMap<String, Task>() {
+                }.getClass().getGenericSuperclass());
+                if (responseData == null) {
+                    return List.of();
+                }
+                return query.apply(responseData.entrySet()
+                        .stream()
+                        .map(item -> {
+                            var currentTask = Task.copyOf(item.getValue());
+                            currentTask.setId(item.getKey());
+                            return currentTask;
+                        })
+                        .toList());
+            }
+            String errorMessage = String.format("Query was not successful with status code: %s", httpResponse.statusCode());
+            throw new RuntimeException(errorMessage);
+        } catch (Exception e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    /**
+     * Count the Task that match the query. Without a filter a shallow request is used that returns only the key of each Task.
+     */
+    @Override
+    public long countTasks(TaskQuery query) {
+        if (query.hasFilter()) {
+            // Firebase does not allow shallow to be used with a query
+            return findTasks(query.withoutLimits()).size();
+        }
+        String jsonShallowPath = String.format("%s/%s.json?shallow=true", firebaseRtdbBaseUrl, Task.class.getSimpleName());
+        var httpRequest = HttpRequest.newBuilder()
+                .uri(URI.create(jsonShallowPath))
+                .GET()
+                .build();
+        try {
+            var httpResponse = httpClient.send(httpRequest, HttpResponse.BodyHandlers.ofString());
+            if (httpResponse.statusCode() == 200) {
+                var responseBodyJson = httpResponse.body();
+                if (responseBodyJson.equals("null")) {
+                    return 0;
+                }
+                // The response is an object with the value true for each key
+                return jsonb.fromJson(responseBodyJson, JsonObject.class).size();
+            }
+            String errorMessage = String.format("Count was not successful with status code: %s", httpResponse.statusCode());
+            throw new RuntimeException(errorMessage);
+        } catch (Exception e) {
+            throw new RuntimeException(e);
+        }
+    }
+
     /**
      * Writing currentTask data to Firebase Realtime Database using the REST API
      *
@@ -238,4 +322,73 @@ public void deleteTaskById(String id) {
             throw new RuntimeException(e);
         }
     }
-}
\ No newline at end of file
+
+    /**
+     * Create, update and delete many Task with one multi-path PATCH request. Firebase applies all the changes or none of them.
+     * Each new Task is given a key in the same format as the keys Firebase creates so it does not need its own POST request.
+     *
+     * @link <a href="https://firebase.google.com/docs/database/rest/save-data#section-patch">Updating Data with PATCH</a>
+     */
+    @Override
+    public void applyBatch(List<Task> newTasks, List<Task> updatedTasks, List<String> deletedIds) {
+        if (newTasks.isEmpty() && updatedTasks.isEmpty() && deletedIds.isEmpty()) {
+            return;
+        }
+        // The PATCH is sent to the root of all the Task data
+        jsonAllDataPath = String.format("%s/%s.json", firebaseRtdbBaseUrl, Task.class.getSimpleName());
+
+        List<String> newIds = newTasks.stream()
+                .map(task -> FirebasePushIdGenerator.nextId())
+                .toList();
+        String requestBodyJson = FirebaseBatchRequests.toBatchRequestBody(jsonb, newTasks, newIds, updatedTasks, deletedIds);
+
+        var httpRequest = HttpRequest.newBuilder()
+                .uri(URI.create(jsonAllDataPath))
+                .header("Content-Type", "application/json")
+                .method("PATCH", HttpRequest.BodyPublishers.ofString(requestBodyJson, StandardCharsets.UTF_8))
+                .build();
+        try {
+            var httpResponse = httpClient.send(httpRequest, HttpResponse.BodyHandlers.discarding());
+            if (httpResponse.statusCode() != 200) {
+                String errorMessage = String.format("Batch was not successful with status code: %s", httpResponse.statusCode());
+                throw new RuntimeException(errorMessage);
+            }
+        } catch (Exception e) {
+            throw new RuntimeException(e);
+        }
+        // Set the key of each new Task
+        for (int index = 0; index < newTasks.size(); index++) {
+            newTasks.get(index).setId(newIds.get(index));
+        }
+    }
+
+    /**
+     * Set done to true for many Task with one multi-path PATCH request that only writes the done property of each Task.
+     * The id of a Task that no longer exists is skipped so the PATCH does not create a Task with only a done property.
+     */
+    @Override
+    public List<String> markTasksDone(List<String> ids) {
+        List<String> existingIds = FirebaseBatchRequests.existingIds(ids, getAllTasks());
+        if (existingIds.isEmpty()) {
+            return existingIds;
+        }
+        // The PATCH is sent to the root of all the Task data
+        jsonAllDataPath = String.format("%s/%s.json", firebaseRtdbBaseUrl, Task.class.getSimpleName());
+
+        var httpRequest = HttpRequest.newBuilder()
+                .uri(URI.create(jsonAllDataPath))
+                .header("Content-Type", "application/json")
+                .method("PATCH", HttpRequest.BodyPublishers.ofString(FirebaseBatchRequests.toMarkDoneRequestBody(existingIds), StandardCharsets.UTF_8))
+                .build();
+        try {
+            var httpResponse = httpClient.send(httpRequest, HttpResponse.BodyHandlers.discarding());
+            if (httpResponse.statusCode() != 200) {
+                String errorMessage = String.format("Mark done was not successful with status code: %s", httpResponse.statusCode());
+                throw new RuntimeException(errorMessage);
+            }
+        } catch (Exception e) {
+            throw new RuntimeException(e);
+        }
+        return existingIds;
+    }
+}
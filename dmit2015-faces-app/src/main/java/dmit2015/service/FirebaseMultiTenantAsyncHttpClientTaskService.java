@@ -0,0 +1,410 @@
+package dmit2015.service;
+
+import dmit2015.faces.FirebaseAuthSignInSession;
+import dmit2015.model.Task;
+import dmit2015.model.TaskQuery;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import jakarta.inject.Named;
+import jakarta.json.Json;
+import jakarta.json.JsonObject;
+import jakarta.json.bind.Jsonb;
+import jakarta.json.bind.JsonbBuilder;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * This class implements the AsyncTaskService using HttpClient.sendAsync to send Http Request to the
+ * Firebase Realtime Database REST API for the multi-tenant data of the signed-in user.
+ * <p>
+ * No thread waits for the Firebase response: the request is sent and the response is handled on a virtual thread
+ * when it arrives. One HttpClient is shared by all requests so its connections are reused, and HTTP/2 lets many
+ * requests share a single connection. The timeouts and the HTTP version are defined in
+ * `src/main/resources/META-INF/microprofile-config.properties`.
+ * <p>
+ * See {@link FirebaseMultiTenantHttpClientTaskService} for the Firebase Realtime Database Rules.
+ */
+@Named("firebaseMultiTenantAsyncHttpClientTaskService")
+@ApplicationScoped
+public class FirebaseMultiTenantAsyncHttpClientTaskService implements AsyncTaskService {
+
+    private static final String MULTI_TENANT_PATH_PREFIX = "multi_tenant_data";
+
+    /**
+     * The base URL to the Firebase Realtime Database that is defined in
+     * `src/main/resources/META-INF/microprofile-config.properties` file.
+     */
+    @Inject
+    @ConfigProperty(name = "firebase.rtdb.Task.base.url")
+    private String firebaseRtdbBaseUrl;
+
+    @Inject
+    @ConfigProperty(name = "firebase.rtdb.http.connect-timeout-seconds", defaultValue = "10")
+    private long connectTimeoutSeconds;
+
+    @Inject
+    @ConfigProperty(name = "firebase.rtdb.http.request-timeout-seconds", defaultValue = "30")
+    private long requestTimeoutSeconds;
+
+    @Inject
+    @ConfigProperty(name = "firebase.rtdb.http.prefer-http2", defaultValue = "true")
+    private boolean preferHttp2;
+
+    @Inject
+    private FirebaseAuthSignInSession firebaseAuthSignInSession;
+
+    @Inject
+    private FirebaseTaskCache taskCache;
+
+    @Inject
+    private FirebaseTaskReplica taskReplica;
+
+    /**
+     * Runs the response handling of every request on its own virtual thread
+     */
+    private ExecutorService executorService;
+
+    private HttpClient httpClient;
+
+    private Jsonb jsonb;
+
+    @PostConstruct
+    private void init() {
+        executorService = Executors.newVirtualThreadPerTaskExecutor();
+        httpClient = HttpClient.newBuilder()
+                .executor(executorService)
+                .connectTimeout(Duration.ofSeconds(connectTimeoutSeconds))
+                // HTTP/2 falls back to HTTP/1.1 if the server does not support it
+                .version(preferHttp2 ? HttpClient.Version.HTTP_2 : HttpClient.Version.HTTP_1_1)
+                .build();
+        jsonb = JsonbBuilder.create();
+    }
+
+    @PreDestroy
+    private void destroy() {
+        httpClient.close();
+        executorService.close();
+    }
+
+    @Override
+    public CompletableFuture<Task> createTaskAsync(Task task) {
+        String firebaseUserId = firebaseUserId();
+        var httpRequest = newRequestBuilder(tenantPath(null))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(jsonb.toJson(task), StandardCharsets.UTF_8))
+                .build();
+        return httpClient.sendAsync(httpRequest, HttpResponse.BodyHandlers.ofString())
+                .thenApply(httpResponse -> {
+                    if (httpResponse.statusCode() != 200) {
+                        String errorMessage = String.format("Create was not successful with status code: %s", httpResponse.statusCode());
+                        throw new RuntimeException(errorMessage);
+                    }
+                    // Set the unique key name that Firebase generated for this object
+                    JsonObject responseJsonObject = jsonb.fromJson(httpResponse.body(), JsonObject.class);
+                    task.setId(responseJsonObject.getString("name"));
+                    taskCache.putTask(firebaseUserId, task);
+                    taskReplica.putTask(firebaseUserId, task);
+                    return task;
+                });
+    }
+
+    @Override
+    public CompletableFuture<Optional<Task>> getTaskByIdAsync(String id) {
+        String firebaseUserId = firebaseUserId();
+        // Read the Task from the live replica when its stream has loaded the data
+        taskReplica.connect(firebaseUserId, firebaseToken());
+        if (taskReplica.isLive(firebaseUserId)) {
+            return CompletableFuture.completedFuture(taskReplica.findById(firebaseUserId, id));
+        }
+        var httpRequest = newRequestBuilder(tenantPath(id))
+                .GET()
+                .build();
+        return httpClient.sendAsync(httpRequest, HttpResponse.BodyHandlers.ofString())
+                .thenApply(httpResponse -> {
+                    if (httpResponse.statusCode() != 200) {
+                        return Optional.empty();
+                    }
+                    var responseBodyJson = httpResponse.body();
+                    if (responseBodyJson.equals("null")) {
+                        throw new RuntimeException(String.format("Task with id of %s not found", id));
+                    }
+                    Task responseData = jsonb.fromJson(responseBodyJson, Task.class);
+                    responseData.setId(id);
+                    return Optional.of(responseData);
+                });
+    }
+
+    @Override
+    public CompletableFuture<List<Task>> getAllTasksAsync() {
+        String firebaseUserId = firebaseUserId();
+        taskReplica.connect(firebaseUserId, firebaseToken());
+        Optional<List<Task>> optionalReplicaTasks = taskReplica.findAll(firebaseUserId);
+        if (optionalReplicaTasks.isPresent()) {
+            return CompletableFuture.completedFuture(optionalReplicaTasks.orElseThrow());
+        }
+        Optional<List<Task>> optionalCachedTasks = taskCache.findFresh(firebaseUserId);
+        if (optionalCachedTasks.isPresent()) {
+            return CompletableFuture.completedFuture(optionalCachedTasks.orElseThrow());
+        }
+        // A change saved while the GET is running must not be replaced by the older response
+        long cacheGeneration = taskCache.generation(firebaseUserId);
+        var httpRequest = newRequestBuilder(tenantPath(null))
+                .header("X-Firebase-ETag", "true")
+                .GET()
+                .build();
+        return httpClient.sendAsync(httpRequest, HttpResponse.BodyHandlers.ofString())
+                .thenApply(httpResponse -> {
+                    if (httpResponse.statusCode() != 200) {
+                        return List.of();
+                    }
+                    String etag = httpResponse.headers().firstValue("ETag").orElse(null);
+                    return taskCache.refresh(firebaseUserId, cacheGeneration, etag, () -> toTaskList(httpResponse.body()));
+                });
+    }
+
+    /**
+     * Send a query to the Firebase Realtime Database REST API so only the matching Task are downloaded.
+     * See {@link FirebaseMultiTenantHttpClientTaskService#findTasks(TaskQuery)} for the required `.indexOn` rule.
+     */
+    @Override
+    public CompletableFuture<List<Task>> findTasksAsync(TaskQuery query) {
+        Optional<List<Task>> optionalLocalTasks = findLocalTasks();
+        if (optionalLocalTasks.isPresent()) {
+            return CompletableFuture.completedFuture(query.apply(optionalLocalTasks.orElseThrow()));
+        }
+        var httpRequest = newRequestBuilder(tenantPath(null) + query.toFirebaseQueryParameters())
+                .GET()
+                .build();
+        return httpClient.sendAsync(httpRequest, HttpResponse.BodyHandlers.ofString())
+                .thenApply(httpResponse -> {
+                    if (httpResponse.statusCode() != 200) {
+                        String errorMessage = String.format("Query was not successful with status code: %s", httpResponse.statusCode());
+                        throw new RuntimeException(errorMessage);
+                    }
+                    // Firebase returns the results in no particular order
+                    return query.apply(toTaskList(httpResponse.body()));
+                });
+    }
+
+    /**
+     * Count the Task that match the query. Without a filter a shallow request is used that returns only the key of each Task.
+     */
+    @Override
+    public CompletableFuture<Long> countTasksAsync(TaskQuery query) {
+        Optional<List<Task>> optionalLocalTasks = findLocalTasks();
+        if (optionalLocalTasks.isPresent()) {
+            return CompletableFuture.completedFuture((long) query.withoutLimits().apply(optionalLocalTasks.orElseThrow()).size());
+        }
+        if (query.hasFilter()) {
+            // Firebase does not allow shallow to be used with a query
+            return findTasksAsync(query.withoutLimits())
+                    .thenApply(tasks -> (long) tasks.size());
+        }
+        var httpRequest = newRequestBuilder(tenantPath(null) + "&shallow=true")
+                .GET()
+                .build();
+        return httpClient.sendAsync(httpRequest, HttpResponse.BodyHandlers.ofString())
+                .thenApply(httpResponse -> {
+                    if (httpResponse.statusCode() != 200) {
+                        String errorMessage = String.format("Count was not successful with status code: %s", httpResponse.statusCode());
+                        throw new RuntimeException(errorMessage);
+                    }
+                    var responseBodyJson = httpResponse.body();
+                    if (responseBodyJson.equals("null")) {
+                        return 0L;
+                    }
+                    // The response is an object with the value true for each key
+                    return (long) jsonb.fromJson(responseBodyJson, JsonObject.class).size();
+                });
+    }
+
+    /**
+     * Return the Task of the signed-in user from the live replica or the cache if either is available.
+     */
+    private Optional<List<Task>> findLocalTasks() {
+        String firebaseUserId = firebaseUserId();
+        taskReplica.connect(firebaseUserId, firebaseToken());
+        return taskReplica.findAll(firebaseUserId)
+                .or(() -> taskCache.findFresh(firebaseUserId));
+    }
+
+    /**
+     * Convert a Firebase response body with Task by key to a List of Task.
+     */
+    private List<Task> toTaskList(String responseBodyJson) {
+        // Convert the response body to an LinkedHashMap<String, Task>
+        LinkedHashMap<String, Task> responseData = jsonb.fromJson(responseBodyJson, new LinkedHashMap<String, Task>() {
+        }.getClass().getGenericSuperclass());
+        if (responseData == null) {
+            return List.of();
+        }
+        return responseData.entrySet()
+                .stream()
+                .map(item -> {
+                    var currentTask = Task.copyOf(item.getValue());
+                    currentTask.setId(item.getKey());
+                    return currentTask;
+                })
+                .toList();
+    }
+
+    @Override
+    public CompletableFuture<Task> updateTaskAsync(Task task) {
+        String firebaseUserId = firebaseUserId();
+        var httpRequest = newRequestBuilder(tenantPath(task.getId()))
+                .header("Content-Type", "application/json")
+                .PUT(HttpRequest.BodyPublishers.ofString(jsonb.toJson(task), StandardCharsets.UTF_8))
+                .build();
+        return httpClient.sendAsync(httpRequest, HttpResponse.BodyHandlers.discarding())
+                .thenApply(httpResponse -> {
+                    if (httpResponse.statusCode() != 200) {
+                        String errorMessage = String.format("Update was not successful with status code: %s", httpResponse.statusCode());
+                        throw new RuntimeException(errorMessage);
+                    }
+                    taskCache.putTask(firebaseUserId, task);
+                    taskReplica.putTask(firebaseUserId, task);
+                    return task;
+                });
+    }
+
+    @Override
+    public CompletableFuture<Void> deleteTaskByIdAsync(String id) {
+        String firebaseUserId = firebaseUserId();
+        var httpRequest = newRequestBuilder(tenantPath(id))
+                .DELETE()
+                .build();
+        return httpClient.sendAsync(httpRequest, HttpResponse.BodyHandlers.discarding())
+                .thenAccept(httpResponse -> {
+                    if (httpResponse.statusCode() != 200) {
+                        String errorMessage = String.format("Delete was not successful with status code: %s", httpResponse.statusCode());
+                        throw new RuntimeException(errorMessage);
+                    }
+                    taskCache.removeTask(firebaseUserId, id);
+                    taskReplica.removeTask(firebaseUserId, id);
+                });
+    }
+
+    private HttpRequest.Builder newRequestBuilder(String url) {
+        return HttpRequest.newBuilder()
+                .uri(URI.create(url))
+                .timeout(Duration.ofSeconds(requestTimeoutSeconds));
+    }
+
+    /**
+     * Return the Firebase user id of the signed-in user. Like {@link #tenantPath(String)} this must be called on the
+     * thread of the Faces request.
+     */
+    private String firebaseUserId() {
+        return firebaseAuthSignInSession.getFirebaseAuthSignInResponsePayload().getLocalId();
+    }
+
+    private String firebaseToken() {
+        return firebaseAuthSignInSession.getFirebaseAuthSignInResponsePayload().getIdToken();
+    }
+
+    /**
+     * Return the URL of the Task data of the signed-in user, or of one Task when `id` is not null.
+     * This must be called on the thread of the Faces request because it reads the session scoped sign-in data.
+     */
+    private String tenantPath(String id) {
+        // Get the Firebase Authenticated userId and token.
+        String firebaseUserId = firebaseUserId();
+        String firebaseToken = firebaseToken();
+        String dataPath = id == null
+                ? String.format("%s/%s/%s/%s", firebaseRtdbBaseUrl, MULTI_TENANT_PATH_PREFIX, Task.class.getSimpleName(), firebaseUserId)
+                : String.format("%s/%s/%s/%s/%s", firebaseRtdbBaseUrl, MULTI_TENANT_PATH_PREFIX, Task.class.getSimpleName(), firebaseUserId, id);
+        return String.format("%s.json?auth=%s", dataPath, firebaseToken);
+    }
+
+    /**
+     * Create, update and delete many Task with one multi-path PATCH request to the data of the signed-in user.
+     * See {@link FirebaseMultiTenantHttpClientTaskService#applyBatch(List, List, List)}.
+     */
+    @Override
+    public CompletableFuture<Void> applyBatchAsync(List<Task> newTasks, List<Task> updatedTasks, List<String> deletedIds) {
+        if (newTasks.isEmpty() && updatedTasks.isEmpty() && deletedIds.isEmpty()) {
+            return CompletableFuture.completedFuture(null);
+        }
+        String firebaseUserId = firebaseUserId();
+        List<String> newIds = newTasks.stream()
+                .map(task -> FirebasePushIdGenerator.nextId())
+                .toList();
+        var httpRequest = newRequestBuilder(tenantPath(null))
+                .header("Content-Type", "application/json")
+                .method("PATCH", HttpRequest.BodyPublishers.ofString(FirebaseBatchRequests.toBatchRequestBody(jsonb, newTasks, newIds, updatedTasks, deletedIds), StandardCharsets.UTF_8))
+                .build();
+        return httpClient.sendAsync(httpRequest, HttpResponse.BodyHandlers.discarding())
+                .thenAccept(httpResponse -> {
+                    if (httpResponse.statusCode() != 200) {
+                        String errorMessage = String.format("Batch was not successful with status code: %s", httpResponse.statusCode());
+                        throw new RuntimeException(errorMessage);
+                    }
+                    for (int index = 0; index < newTasks.size(); index++) {
+                        newTasks.get(index).setId(newIds.get(index));
+                    }
+                    for (Task savedTask : newTasks) {
+                        taskCache.putTask(firebaseUserId, savedTask);
+                        taskReplica.putTask(firebaseUserId, savedTask);
+                    }
+                    for (Task savedTask : updatedTasks) {
+                        taskCache.putTask(firebaseUserId, savedTask);
+                        taskReplica.putTask(firebaseUserId, savedTask);
+                    }
+                    for (String deletedId : deletedIds) {
+                        taskCache.removeTask(firebaseUserId, deletedId);
+                        taskReplica.removeTask(firebaseUserId, deletedId);
+                    }
+                });
+    }
+
+    /**
+     * Set done to true for many Task with one multi-path PATCH request to the data of the signed-in user
+     * that only writes the done property of each Task.
+     * The id of a Task that no longer exists is skipped so the PATCH does not create a Task with only a done property.
+     */
+    @Override
+    public CompletableFuture<List<String>> markTasksDoneAsync(List<String> ids) {
+        if (ids.isEmpty()) {
+            return CompletableFuture.completedFuture(List.of());
+        }
+        // Read the sign-in data on the thread of the Faces request
+        String firebaseUserId = firebaseUserId();
+        String tenantPath = tenantPath(null);
+        return getAllTasksAsync().thenCompose(currentTasks -> {
+            List<String> existingIds = FirebaseBatchRequests.existingIds(ids, currentTasks);
+            if (existingIds.isEmpty()) {
+                return CompletableFuture.completedFuture(existingIds);
+            }
+            var httpRequest = newRequestBuilder(tenantPath)
+                    .header("Content-Type", "application/json")
+                    .method("PATCH", HttpRequest.BodyPublishers.ofString(FirebaseBatchRequests.toMarkDoneRequestBody(existingIds), StandardCharsets.UTF_8))
+                    .build();
+            return httpClient.sendAsync(httpRequest, HttpResponse.BodyHandlers.discarding())
+                    .thenApply(httpResponse -> {
+                        if (httpResponse.statusCode() != 200) {
+                            String errorMessage = String.format("Mark done was not successful with status code: %s", httpResponse.statusCode());
+                            throw new RuntimeException(errorMessage);
+                        }
+                        for (String id : existingIds) {
+                            taskCache.markTaskDone(firebaseUserId, id);
+                            taskReplica.markTaskDone(firebaseUserId, id);
+                        }
+                        return existingIds;
+                    });
+        });
+    }
+}
@@ -2,10 +2,12 @@
 
 import dmit2015.faces.FirebaseAuthSignInSession;
 import dmit2015.model.Task;
+import dmit2015.model.TaskQuery;
 import jakarta.annotation.PostConstruct;
 import jakarta.enterprise.context.ApplicationScoped;
 import jakarta.inject.Inject;
 import jakarta.inject.Named;
+import jakarta.json.Json;
 import jakarta.json.JsonObject;
 import jakarta.json.bind.Jsonb;
 import jakarta.json.bind.JsonbBuilder;
@@ -32,6 +34,8 @@
  * "multi_tenant_data": {
  * "Task": {
  * "$uid": {
+ * // Index the properties used to order and filter queries
+ * ".indexOn": ["priority", "done"],
  * // Allow only authenticated content owners access to their data
  * ".read": "auth !== null && auth.uid === $uid",
  * ".write": "auth !== null && auth.uid === $uid"
@@ -72,6 +76,18 @@ public class FirebaseMultiTenantHttpClientTaskService implements TaskService {
     @Inject
     private FirebaseAuthSignInSession firebaseAuthSignInSession;
 
+    /**
+     * The per-tenant cache of the list of Task
+     */
+    @Inject
+    private FirebaseTaskCache taskCache;
+
+    /**
+     * The live replica of the Task data that is kept up to date by a streaming connection
+     */
+    @Inject
+    private FirebaseTaskReplica taskReplica;
+
     private static final String MULTI_TENANT_PATH_PREFIX = "multi_tenant_data";
 
     @PostConstruct
@@ -119,6 +135,9 @@ public Task createTask(Task task) {
                 JsonObject responseJsonObject = jsonb.fromJson(responseBodyJson, JsonObject.class);
                 // Set the unique key name for this object
                 task.setId(responseJsonObject.getString("name"));
+                // Add the new Task to the cached list instead of fetching the whole list again
+                taskCache.putTask(firebaseUserId, task);
+                taskReplica.putTask(firebaseUserId, task);
 
             } else {
                 String errorMessage = String.format("Create was not successful with status code: %s", httpResponse.statusCode());
@@ -143,6 +162,12 @@ public Optional<Task> getTaskById(String id) {
                 id,
                 firebaseToken);
 
+        // Read the Task from the live replica when its stream has loaded the data
+        taskReplica.connect(firebaseUserId, firebaseToken);
+        if (taskReplica.isLive(firebaseUserId)) {
+            return taskReplica.findById(firebaseUserId, id);
+        }
+
         try {
             // Create an GET Http Request to fetch all data
             var httpRequest = HttpRequest.newBuilder()
@@ -178,6 +203,17 @@ public List<Task> getAllTasks() {
         // Get the Firebase Authenticated userId and token.
         String firebaseUserId = firebaseAuthSignInSession.getFirebaseAuthSignInResponsePayload().getLocalId();
         String firebaseToken = firebaseAuthSignInSession.getFirebaseAuthSignInResponsePayload().getIdToken();
+        // Return the list from the live replica when its stream has loaded the data
+        taskReplica.connect(firebaseUserId, firebaseToken);
+        Optional<List<Task>> optionalReplicaTasks = taskReplica.findAll(firebaseUserId);
+        if (optionalReplicaTasks.isPresent()) {
+            return optionalReplicaTasks.orElseThrow();
+        }
+        // Return the cached list if it has not expired
+        Optional<List<Task>> optionalCachedTasks = taskCache.findFresh(firebaseUserId);
+        if (optionalCachedTasks.isPresent()) {
+            return optionalCachedTasks.orElseThrow();
+        }
         // Set the path in the database for content-owner access only data
         jsonAllDataPath = String.format("%s/%s/%s/%s.json?auth=%s",
                 firebaseRtdbBaseUrl,
@@ -186,10 +222,13 @@ public List<Task> getAllTasks() {
                 firebaseUserId,
                 firebaseToken);
 
-        // Create an GET Http Request to fetch all data
+        // A change saved while the GET is running must not be replaced by the older response
+        long cacheGeneration = taskCache.generation(firebaseUserId);
+        // Create an GET Http Request to fetch all data and the ETag of the data
         var httpRequest = HttpRequest.newBuilder()
                 .uri(URI.create(jsonAllDataPath))
                 .header("Content-Type", "application/json")
+                .header("X-Firebase-ETag", "true")
                 .GET()
                 .build();
         try {
@@ -199,10 +238,15 @@ public List<Task> getAllTasks() {
             if (httpResponse.statusCode() == 200) {
                 // Get the body of the Http Response
                 var responseBodyJson = httpResponse.body();
-                // Convert the responseBodyJson to an LinkedHashMap<String, Task>
-                LinkedHashMap<String, Task> responseData = jsonb.fromJson(responseBodyJson, new LinkedHashMap<String, Task>() {
-                }.getClass().getGenericSuperclass());
-                if (responseData != null) {
+                String etag = httpResponse.headers().firstValue("ETag").orElse(null);
+                // The body is only converted if the ETag shows the data has changed since it was cached
+                return taskCache.refresh(firebaseUserId, cacheGeneration, etag, () -> {
+                    // Convert the responseBodyJson to an LinkedHashMap<String, Task>
+                    LinkedHashMap<String, Task> responseData = jsonb.fromJson(responseBodyJson, new LinkedHashMap<String, Task>() {
+                    }.getClass().getGenericSuperclass());
+                    if (responseData == null) {
+                        return List.of();
+                    }
                     // Convert the LinkedHashMap<String, Task> to List<Task>
                     return responseData.entrySet()
                             .stream()
@@ -217,7 +261,7 @@ public List<Task> getAllTasks() {
                                 return currentTask;
                             })
                             .toList();
-                }
+                });
             }
 
         } catch (Exception e) {
@@ -226,6 +270,117 @@ public List<Task> getAllTasks() {
         return List.of();
     }
 
+    /**
+     * Send a query to the Firebase Realtime Database REST API so only the matching Task are downloaded.
+     * Firebase returns the results in no particular order so they are sorted after they are received.
+     * <p>
+     * Each property used to order the results must be indexed with `.indexOn` in the Firebase Realtime Database Rules
+     * otherwise Firebase rejects the query.
+     *
+     * @link <a href="https://firebase.google.com/docs/database/rest/retrieve-data#section-rest-filtering">Filtering Data</a>
+     */
+    @Override
+    public List<Task> findTasks(TaskQuery query) {
+        // Get the Firebase Authenticated userId and token.
+        String firebaseUserId = firebaseAuthSignInSession.getFirebaseAuthSignInResponsePayload().getLocalId();
+        String firebaseToken = firebaseAuthSignInSession.getFirebaseAuthSignInResponsePayload().getIdToken();
+        // Query the live replica or the cached list when one is available
+        taskReplica.connect(firebaseUserId, firebaseToken);
+        Optional<List<Task>> optionalLocalTasks = taskReplica.findAll(firebaseUserId)
+                .or(() -> taskCache.findFresh(firebaseUserId));
+        if (optionalLocalTasks.isPresent()) {
+            return query.apply(optionalLocalTasks.orElseThrow());
+        }
+        String jsonQueryPath = String.format("%s/%s/%s/%s.json?auth=%s%s",
+                firebaseRtdbBaseUrl,
+                MULTI_TENANT_PATH_PREFIX,
+                Task.class.getSimpleName(),
+                firebaseUserId,
+                firebaseToken,
+                query.toFirebaseQueryParameters());
+
+        var httpRequest = HttpRequest.newBuilder()
+                .uri(URI.create(jsonQueryPath))
+                .header("Content-Type", "application/json")
+                .GET()
+                .build();
+        try {
+            var httpResponse = httpClient.send(httpRequest, HttpResponse.BodyHandlers.ofString());
+            if (httpResponse.statusCode() == 200) {
+                return query.apply(toTaskList(httpResponse.body()));
+            }
+            String errorMessage = String.format("Query was not successful with status code: %s", httpResponse.statusCode());
+            throw new RuntimeException(errorMessage);
+        } catch (Exception e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    /**
+     * Count the Task that match the query. Without a filter a shallow request is used that returns only the key of each Task.
+     */
+    @Override
+    public long countTasks(TaskQuery query) {
+        String firebaseUserId = firebaseAuthSignInSession.getFirebaseAuthSignInResponsePayload().getLocalId();
+        String firebaseToken = firebaseAuthSignInSession.getFirebaseAuthSignInResponsePayload().getIdToken();
+        taskReplica.connect(firebaseUserId, firebaseToken);
+        Optional<List<Task>> optionalLocalTasks = taskReplica.findAll(firebaseUserId)
+                .or(() -> taskCache.findFresh(firebaseUserId));
+        if (optionalLocalTasks.isPresent()) {
+            return query.withoutLimits().apply(optionalLocalTasks.orElseThrow()).size();
+        }
+        if (query.hasFilter()) {
+            // Firebase does not allow shallow to be used with a query
+            return findTasks(query.withoutLimits()).size();
+        }
+        String jsonShallowPath = String.format("%s/%s/%s/%s.json?auth=%s&shallow=true",
+                firebaseRtdbBaseUrl,
+                MULTI_TENANT_PATH_PREFIX,
+                Task.class.getSimpleName(),
+                firebaseUserId,
+                firebaseToken);
+
+        var httpRequest = HttpRequest.newBuilder()
+                .uri(URI.create(jsonShallowPath))
+                .GET()
+                .build();
+        try {
+            var httpResponse = httpClient.send(httpRequest, HttpResponse.BodyHandlers.ofString());
+            if (httpResponse.statusCode() == 200) {
+                var responseBodyJson = httpResponse.body();
+                if (responseBodyJson.equals("null")) {
+                    return 0;
+                }
+                // The response is an object with the value true for each key
+                return jsonb.fromJson(responseBodyJson, JsonObject.class).size();
+            }
+            String errorMessage = String.format("Count was not successful with status code: %s", httpResponse.statusCode());
+            throw new RuntimeException(errorMessage);
+        } catch (Exception e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    /**
+     * Convert a Firebase response body with Task by key to a List of Task.
+     */
+    private List<Task> toTaskList(String responseBodyJson) {
+        // Convert the responseBodyJson to an LinkedHashMap<String, Task>
+        LinkedHashMap<String, Task> responseData = jsonb.fromJson(responseBodyJson, new LinkedHashMap<String, Task>() {
+        }.getClass().getGenericSuperclass());
+        if (responseData == null) {
+            return List.of();
+        }
+        return responseData.entrySet()
+                .stream()
+                .map(item -> {
+                    var currentTask = Task.copyOf(item.getValue());
+                    currentTask.setId(item.getKey());
+                    return currentTask;
+                })
+                .toList();
+    }
+
     /**
      * Writing currentTask data to Firebase Realtime Database using the REST API
      *
@@ -261,6 +416,8 @@ public Task updateTask(Task task) {
                 String errorMessage = String.format("Update was not successful with status code: %s", httpResponse.statusCode());
                 throw new RuntimeException(errorMessage);
             }
+            taskCache.putTask(firebaseUserId, task);
+            taskReplica.putTask(firebaseUserId, task);
 
         } catch (Exception e) {
             throw new RuntimeException(e);
@@ -299,9 +456,116 @@ public void deleteTaskById(String id) {
                 String errorMessage = String.format("Delete was not successful with status code: %s", httpResponse.statusCode());
                 throw new RuntimeException(errorMessage);
             }
+            taskCache.removeTask(firebaseUserId, id);
+            taskReplica.removeTask(firebaseUserId, id);
+
+        } catch (Exception e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    /**
+     * Create, update and delete many Task with one multi-path PATCH request to the data of the signed-in user.
+     * Firebase applies all the changes or none of them. Each new Task is given a key in the same format as the keys
+     * Firebase creates so it does not need its own POST request.
+     *
+     * @link <a href="https://firebase.google.com/docs/database/rest/save-data#section-patch">Updating Data with PATCH</a>
+     */
+    @Override
+    public void applyBatch(List<Task> newTasks, List<Task> updatedTasks, List<String> deletedIds) {
+        if (newTasks.isEmpty() && updatedTasks.isEmpty() && deletedIds.isEmpty()) {
+            return;
+        }
+        // Get the Firebase Authenticated userId and token.
+        String firebaseUserId = firebaseAuthSignInSession.getFirebaseAuthSignInResponsePayload().getLocalId();
+        String firebaseToken = firebaseAuthSignInSession.getFirebaseAuthSignInResponsePayload().getIdToken();
+        // The PATCH is sent to the root of the data of the signed-in user
+        jsonAllDataPath = String.format("%s/%s/%s/%s.json?auth=%s",
+                firebaseRtdbBaseUrl,
+                MULTI_TENANT_PATH_PREFIX,
+                Task.class.getSimpleName(),
+                firebaseUserId,
+                firebaseToken);
 
+        List<String> newIds = newTasks.stream()
+                .map(task -> FirebasePushIdGenerator.nextId())
+                .toList();
+        String requestBodyJson = FirebaseBatchRequests.toBatchRequestBody(jsonb, newTasks, newIds, updatedTasks, deletedIds);
+
+        var httpRequest = HttpRequest.newBuilder()
+                .uri(URI.create(jsonAllDataPath))
+                .header("Content-Type", "application/json")
+                .method("PATCH", HttpRequest.BodyPublishers.ofString(requestBodyJson, StandardCharsets.UTF_8))
+                .build();
+        try {
+            var httpResponse = httpClient.send(httpRequest, HttpResponse.BodyHandlers.discarding());
+            if (httpResponse.statusCode() != 200) {
+                String errorMessage = String.format("Batch was not successful with status code: %s", httpResponse.statusCode());
+                throw new RuntimeException(errorMessage);
+            }
         } catch (Exception e) {
             throw new RuntimeException(e);
         }
+
+        // Set the key of each new Task and apply the changes to the cached list and the replica
+        for (int index = 0; index < newTasks.size(); index++) {
+            newTasks.get(index).setId(newIds.get(index));
+        }
+        for (Task savedTask : newTasks) {
+            taskCache.putTask(firebaseUserId, savedTask);
+            taskReplica.putTask(firebaseUserId, savedTask);
+        }
+        for (Task savedTask : updatedTasks) {
+            taskCache.putTask(firebaseUserId, savedTask);
+            taskReplica.putTask(firebaseUserId, savedTask);
+        }
+        for (String deletedId : deletedIds) {
+            taskCache.removeTask(firebaseUserId, deletedId);
+            taskReplica.removeTask(firebaseUserId, deletedId);
+        }
+    }
+
+    /**
+     * Set done to true for many Task with one multi-path PATCH request to the data of the signed-in user
+     * that only writes the done property of each Task.
+     * The id of a Task that no longer exists is skipped so the PATCH does not create a Task with only a done property.
+     */
+    @Override
+    public List<String> markTasksDone(List<String> ids) {
+        List<String> existingIds = FirebaseBatchRequests.existingIds(ids, getAllTasks());
+        if (existingIds.isEmpty()) {
+            return existingIds;
+        }
+        // Get the Firebase Authenticated userId and token.
+        String firebaseUserId = firebaseAuthSignInSession.getFirebaseAuthSignInResponsePayload().getLocalId();
+        String firebaseToken = firebaseAuthSignInSession.getFirebaseAuthSignInResponsePayload().getIdToken();
+        // The PATCH is sent to the root of the data of the signed-in user
+        jsonAllDataPath = String.format("%s/%s/%s/%s.json?auth=%s",
+                firebaseRtdbBaseUrl,
+                MULTI_TENANT_PATH_PREFIX,
+                Task.class.getSimpleName(),
+                firebaseUserId,
+                firebaseToken);
+
+        var httpRequest = HttpRequest.newBuilder()
+                .uri(URI.create(jsonAllDataPath))
+                .header("Content-Type", "application/json")
+                .method("PATCH", HttpRequest.BodyPublishers.ofString(FirebaseBatchRequests.toMarkDoneRequestBody(existingIds), StandardCharsets.UTF_8))
+                .build();
+        try {
+            var httpResponse = httpClient.send(httpRequest, HttpResponse.BodyHandlers.discarding());
+            if (httpResponse.statusCode() != 200) {
+                String errorMessage = String.format("Mark done was not successful with status code: %s", httpResponse.statusCode());
+                throw new RuntimeException(errorMessage);
+            }
+        } catch (Exception e) {
+            throw new RuntimeException(e);
+        }
+
+        for (String id : existingIds) {
+            taskCache.markTaskDone(firebaseUserId, id);
+            taskReplica.markTaskDone(firebaseUserId, id);
+        }
+        return existingIds;
     }
-}
\ No newline at end of file
+}
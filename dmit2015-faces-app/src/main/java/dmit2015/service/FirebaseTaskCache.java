@@ -0,0 +1,215 @@
+package dmit2015.service;
+
+import dmit2015.model.Task;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Supplier;
+
+/**
+ * This class caches the list of Task of each Firebase user (tenant) so that the whole
+ * `multi_tenant_data/Task/{uid}` node does not have to be downloaded every time the list is shown.
+ * <p>
+ * A snapshot is used without contacting Firebase until it is older than `firebase.rtdb.Task.cache.ttl-seconds`.
+ * After that it is revalidated using the ETag that Firebase returns when a request has the header
+ * `X-Firebase-ETag: true`. If the ETag has not changed the cached snapshot is kept and the response body is not converted again.
+ * At most `firebase.rtdb.Task.cache.max-tenants` snapshots are kept; the least recently used one is removed first.
+ * <p>
+ * Creates, updates and deletes made through this application are applied directly to the cached snapshot.
+ * Every Task returned from this class is a copy so changes made by the caller do not change the cache.
+ * <p>
+ * Each change also increases the generation of the tenant. A GET records the generation with {@link #generation(String)}
+ * before it is sent, and {@link #refresh(String, long, String, Supplier)} only stores the response if the generation
+ * has not changed, so a response that was read before a write can not replace the snapshot that includes the write.
+ */
+@ApplicationScoped
+public class FirebaseTaskCache {
+
+    @Inject
+    @ConfigProperty(name = "firebase.rtdb.Task.cache.max-tenants", defaultValue = "500")
+    private int maxTenants;
+
+    @Inject
+    @ConfigProperty(name = "firebase.rtdb.Task.cache.ttl-seconds", defaultValue = "30")
+    private long ttlSeconds;
+
+    /**
+     * The snapshot of each tenant in least recently used order. All access is synchronized on this object.
+     */
+    private final Map<String, TaskSnapshot> snapshotsByTenant = new LinkedHashMap<>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, TaskSnapshot> eldest) {
+            return size() > maxTenants;
+        }
+    };
+
+    /**
+     * The generation of each tenant that has been changed. All access is synchronized on {@link #snapshotsByTenant}.
+     */
+    private final Map<String, Long> generationsByTenant = new LinkedHashMap<>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, Long> eldest) {
+            if (size() > maxTenants) {
+                // A tenant without an entry has this generation, so a removed generation can never be seen again
+                removedGeneration = Math.max(removedGeneration, eldest.getValue());
+                return true;
+            }
+            return false;
+        }
+    };
+
+    /**
+     * The generation of a tenant that is not in {@link #generationsByTenant}
+     */
+    private long removedGeneration;
+
+    private long nextGeneration;
+
+    public FirebaseTaskCache() {
+    }
+
+    FirebaseTaskCache(int maxTenants, long ttlSeconds) {
+        this.maxTenants = maxTenants;
+        this.ttlSeconds = ttlSeconds;
+    }
+
+    private static class TaskSnapshot {
+        private final Map<String, Task> tasksById = new LinkedHashMap<>();
+        /**
+         * The ETag of the data in Firebase, or null if the snapshot has been changed locally since it was loaded.
+         */
+        private String etag;
+        private long loadedAtNanos;
+    }
+
+    /**
+     * Return the cached list of Task of the tenant if it is younger than the time to live.
+     */
+    public Optional<List<Task>> findFresh(String tenantId) {
+        synchronized (snapshotsByTenant) {
+            TaskSnapshot snapshot = snapshotsByTenant.get(tenantId);
+            if (snapshot == null || System.nanoTime() - snapshot.loadedAtNanos > ttlSeconds * 1_000_000_000L) {
+                return Optional.empty();
+            }
+            return Optional.of(copyOf(snapshot));
+        }
+    }
+
+    /**
+     * Return the generation of the tenant, which must be read before the GET request is sent to Firebase
+     * and passed to {@link #refresh(String, long, String, Supplier)} with the response.
+     */
+    public long generation(String tenantId) {
+        synchronized (snapshotsByTenant) {
+            return generationsByTenant.getOrDefault(tenantId, removedGeneration);
+        }
+    }
+
+    /**
+     * Store the list of Task that was read from Firebase with the `etag` of the response.
+     * If the ETag is the same as the ETag of the cached snapshot the snapshot is kept and `loadTasks` is not called.
+     * If the tenant was changed after `generation` was read the response may not include the change, so the
+     * loaded Task are returned without being stored.
+     *
+     * @param tenantId   the Firebase user id
+     * @param generation the value of {@link #generation(String)} before the GET request was sent
+     * @param etag       the value of the ETag response header, or null if there was none
+     * @param loadTasks  converts the response body to a list of Task
+     * @return a copy of the list of Task
+     */
+    public List<Task> refresh(String tenantId, long generation, String etag, Supplier<List<Task>> loadTasks) {
+        synchronized (snapshotsByTenant) {
+            TaskSnapshot snapshot = snapshotsByTenant.get(tenantId);
+            if (snapshot != null && etag != null && etag.equals(snapshot.etag)) {
+                snapshot.loadedAtNanos = System.nanoTime();
+                return copyOf(snapshot);
+            }
+        }
+        List<Task> tasks = loadTasks.get();
+        var snapshot = new TaskSnapshot();
+        tasks.forEach(task -> snapshot.tasksById.put(task.getId(), Task.copyOf(task)));
+        snapshot.etag = etag;
+        snapshot.loadedAtNanos = System.nanoTime();
+        synchronized (snapshotsByTenant) {
+            if (generation(tenantId) == generation) {
+                snapshotsByTenant.put(tenantId, snapshot);
+            }
+        }
+        return copyOf(snapshot);
+    }
+
+    /**
+     * Add or replace a Task in the cached snapshot of the tenant after it was saved to Firebase.
+     */
+    public void putTask(String tenantId, Task task) {
+        synchronized (snapshotsByTenant) {
+            nextGeneration(tenantId);
+            TaskSnapshot snapshot = snapshotsByTenant.get(tenantId);
+            if (snapshot != null) {
+                snapshot.tasksById.put(task.getId(), Task.copyOf(task));
+                snapshot.etag = null;
+            }
+        }
+    }
+
+    /**
+     * Set done to true for a Task in the cached snapshot of the tenant after only its done property was saved to Firebase.
+     */
+    public void markTaskDone(String tenantId, String id) {
+        synchronized (snapshotsByTenant) {
+            nextGeneration(tenantId);
+            TaskSnapshot snapshot = snapshotsByTenant.get(tenantId);
+            if (snapshot != null) {
+                Task cachedTask = snapshot.tasksById.get(id);
+                if (cachedTask != null) {
+                    cachedTask.setDone(true);
+                }
+                snapshot.etag = null;
+            }
+        }
+    }
+
+    /**
+     * Remove a Task from the cached snapshot of the tenant after it was deleted from Firebase.
+     */
+    public void removeTask(String tenantId, String id) {
+        synchronized (snapshotsByTenant) {
+            nextGeneration(tenantId);
+            TaskSnapshot snapshot = snapshotsByTenant.get(tenantId);
+            if (snapshot != null) {
+                snapshot.tasksById.remove(id);
+                snapshot.etag = null;
+            }
+        }
+    }
+
+    /**
+     * Remove the cached snapshot of the tenant so the next read fetches the data from Firebase.
+     */
+    public void invalidate(String tenantId) {
+        synchronized (snapshotsByTenant) {
+            nextGeneration(tenantId);
+            snapshotsByTenant.remove(tenantId);
+        }
+    }
+
+    /**
+     * Increase the generation of the tenant. The caller must synchronize on {@link #snapshotsByTenant}.
+     */
+    private void nextGeneration(String tenantId) {
+        nextGeneration = Math.max(nextGeneration, removedGeneration) + 1;
+        generationsByTenant.put(tenantId, nextGeneration);
+    }
+
+    private static List<Task> copyOf(TaskSnapshot snapshot) {
+        return snapshot.tasksById.values()
+                .stream()
+                .map(Task::copyOf)
+                .toList();
+    }
+}
@@ -0,0 +1,391 @@
+package dmit2015.service;
+
+import dmit2015.model.Task;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import jakarta.json.Json;
+import jakarta.json.JsonObject;
+import jakarta.json.JsonReader;
+import jakarta.json.JsonValue;
+import jakarta.json.bind.Jsonb;
+import jakarta.json.bind.JsonbBuilder;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import java.util.stream.Stream;
+
+/**
+ * This class keeps a live copy in memory of the Task data of each signed-in Firebase user (tenant)
+ * using the streaming support of the Firebase Realtime Database REST API.
+ * <p>
+ * One request with the header `Accept: text/event-stream` is kept open per tenant on a virtual thread.
+ * Firebase first sends a `put` event with all the data and then a `put` or `patch` event for each change,
+ * which is applied to a ConcurrentHashMap of the tenant. Until the first `put` event has been received the
+ * tenant is not live and the services read from Firebase as before.
+ * <p>
+ * If the connection fails it is opened again after a delay that doubles after each failure up to
+ * `firebase.rtdb.Task.stream.max-backoff-millis`. A `cancel` event (the rules no longer allow reading) or an
+ * `auth_revoked` event (the token has expired) closes the connection, and the data is loaded again with the
+ * newest token that the services have passed to {@link #connect(String, String)}.
+ * A stream is closed when its tenant has not read any data for `firebase.rtdb.Task.stream.idle-timeout-minutes`.
+ *
+ * @link <a href="https://firebase.google.com/docs/reference/rest/database#section-streaming">Streaming from the REST API</a>
+ */
+@ApplicationScoped
+public class FirebaseTaskReplica {
+
+    private static final Logger LOG = Logger.getLogger(FirebaseTaskReplica.class.getName());
+
+    private static final String MULTI_TENANT_PATH_PREFIX = "multi_tenant_data";
+
+    @Inject
+    @ConfigProperty(name = "firebase.rtdb.Task.base.url")
+    private String firebaseRtdbBaseUrl;
+
+    @Inject
+    @ConfigProperty(name = "firebase.rtdb.Task.stream.enabled", defaultValue = "true")
+    private boolean enabled;
+
+    @Inject
+    @ConfigProperty(name = "firebase.rtdb.Task.stream.idle-timeout-minutes", defaultValue = "30")
+    private long idleTimeoutMinutes;
+
+    @Inject
+    @ConfigProperty(name = "firebase.rtdb.Task.stream.initial-backoff-millis", defaultValue = "1000")
+    private long initialBackoffMillis;
+
+    @Inject
+    @ConfigProperty(name = "firebase.rtdb.Task.stream.max-backoff-millis", defaultValue = "60000")
+    private long maxBackoffMillis;
+
+    private final Map<String, TenantStream> streamsByTenant = new ConcurrentHashMap<>();
+
+    private HttpClient httpClient;
+
+    private Jsonb jsonb;
+
+    @PostConstruct
+    private void init() {
+        httpClient = HttpClient.newBuilder()
+                // Firebase may redirect a streaming request to the server that holds the data
+                .followRedirects(HttpClient.Redirect.NORMAL)
+                .build();
+        jsonb = JsonbBuilder.create();
+    }
+
+    @PreDestroy
+    private void destroy() {
+        streamsByTenant.values().forEach(TenantStream::stop);
+        httpClient.shutdownNow();
+    }
+
+    /**
+     * Open the stream of the tenant if it is not already open, and remember the newest token of the tenant.
+     * This is called before each read so that streams of active tenants stay open.
+     */
+    public void connect(String tenantId, String idToken) {
+        if (!enabled) {
+            return;
+        }
+        TenantStream stream = streamsByTenant.computeIfAbsent(tenantId, key -> {
+            var newStream = new TenantStream(key, idToken);
+            Thread.ofVirtual().name("firebase-task-stream-" + key).start(newStream);
+            return newStream;
+        });
+        stream.idToken = idToken;
+        stream.lastAccessNanos = System.nanoTime();
+    }
+
+    /**
+     * Return true if the replica of the tenant has received the current data from Firebase.
+     */
+    public boolean isLive(String tenantId) {
+        TenantStream stream = streamsByTenant.get(tenantId);
+        return stream != null && stream.live;
+    }
+
+    /**
+     * Return all Task of the tenant ordered by key, which is the order Firebase returns them in,
+     * or an empty Optional if the replica is not live.
+     */
+    public Optional<List<Task>> findAll(String tenantId) {
+        TenantStream stream = streamsByTenant.get(tenantId);
+        if (stream == null || !stream.live) {
+            return Optional.empty();
+        }
+        return Optional.of(stream.tasksById.entrySet()
+                .stream()
+                .sorted(Map.Entry.comparingByKey())
+                .map(entry -> toTask(entry.getKey(), entry.getValue()))
+                .toList());
+    }
+
+    /**
+     * Return the Task with the id from the replica of the tenant. Only call this when {@link #isLive(String)} is true.
+     */
+    public Optional<Task> findById(String tenantId, String id) {
+        TenantStream stream = streamsByTenant.get(tenantId);
+        if (stream == null) {
+            return Optional.empty();
+        }
+        return Optional.ofNullable(stream.tasksById.get(id))
+                .map(json -> toTask(id, json));
+    }
+
+    /**
+     * Apply a Task that was saved by this application to the replica so it can be read before
+     * Firebase sends the matching event.
+     */
+    public void putTask(String tenantId, Task task) {
+        TenantStream stream = streamsByTenant.get(tenantId);
+        if (stream != null && stream.live) {
+            stream.tasksById.put(task.getId(), toJsonObject(task));
+        }
+    }
+
+    /**
+     * Set done to true for a Task in the replica after only its done property was saved by this application.
+     */
+    public void markTaskDone(String tenantId, String id) {
+        TenantStream stream = streamsByTenant.get(tenantId);
+        if (stream != null && stream.live) {
+            stream.tasksById.computeIfPresent(id, (taskId, json) -> Json.createObjectBuilder(json).add("done", true).build());
+        }
+    }
+
+    /**
+     * Remove a Task that was deleted by this application from the replica.
+     */
+    public void removeTask(String tenantId, String id) {
+        TenantStream stream = streamsByTenant.get(tenantId);
+        if (stream != null) {
+            stream.tasksById.remove(id);
+        }
+    }
+
+    private Task toTask(String id, JsonObject json) {
+        Task task = jsonb.fromJson(json.toString(), Task.class);
+        task.setId(id);
+        return task;
+    }
+
+    private JsonObject toJsonObject(Task task) {
+        var taskData = Task.copyOf(task);
+        taskData.setId(null);
+        try (JsonReader reader = Json.createReader(new StringReader(jsonb.toJson(taskData)))) {
+            return reader.readObject();
+        }
+    }
+
+    /**
+     * The streaming connection and the replica of one tenant
+     */
+    class TenantStream implements Runnable {
+
+        private final String tenantId;
+
+        private volatile String idToken;
+
+        private volatile long lastAccessNanos = System.nanoTime();
+
+        /**
+         * True after the first put event of the current connection has been applied
+         */
+        private volatile boolean live;
+
+        private volatile boolean stopped;
+
+        /**
+         * The Task data of the tenant by key. A put event on the root replaces the whole map.
+         */
+        volatile ConcurrentHashMap<String, JsonObject> tasksById = new ConcurrentHashMap<>();
+
+        private volatile Stream<String> currentLines;
+
+        TenantStream(String tenantId, String idToken) {
+            this.tenantId = tenantId;
+            this.idToken = idToken;
+        }
+
+        @Override
+        public void run() {
+            long backoffMillis = initialBackoffMillis;
+            try {
+                while (!stopped && !isIdle()) {
+                    try {
+                        listen();
+                    } catch (IOException | RuntimeException e) {
+                        LOG.log(Level.FINE, "Task stream of tenant " + tenantId + " failed", e);
+                    }
+                    if (live) {
+                        // The connection worked so start again with the shortest delay
+                        backoffMillis = initialBackoffMillis;
+                    }
+                    live = false;
+                    if (stopped || isIdle()) {
+                        break;
+                    }
+                    Thread.sleep(backoffMillis);
+                    backoffMillis = Math.min(backoffMillis * 2, maxBackoffMillis);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } finally {
+                live = false;
+                streamsByTenant.remove(tenantId, this);
+            }
+        }
+
+        private void stop() {
+            stopped = true;
+            Stream<String> lines = currentLines;
+            if (lines != null) {
+                lines.close();
+            }
+        }
+
+        private boolean isIdle() {
+            return System.nanoTime() - lastAccessNanos > idleTimeoutMinutes * 60_000_000_000L;
+        }
+
+        /**
+         * Open the stream and apply each event until the connection ends or must be opened again.
+         */
+        private void listen() throws IOException, InterruptedException {
+            String jsonStreamPath = String.format("%s/%s/%s/%s.json?auth=%s",
+                    firebaseRtdbBaseUrl,
+                    MULTI_TENANT_PATH_PREFIX,
+                    Task.class.getSimpleName(),
+                    tenantId,
+                    idToken);
+            var httpRequest = HttpRequest.newBuilder()
+                    .uri(URI.create(jsonStreamPath))
+                    .header("Accept", "text/event-stream")
+                    .GET()
+                    .build();
+            var httpResponse = httpClient.send(httpRequest, HttpResponse.BodyHandlers.ofLines());
+            try (Stream<String> lines = httpResponse.body()) {
+                if (httpResponse.statusCode() != 200) {
+                    throw new IOException(String.format("Task stream was not successful with status code: %s", httpResponse.statusCode()));
+                }
+                currentLines = lines;
+                String eventName = null;
+                StringBuilder eventData = new StringBuilder();
+                Iterator<String> lineIterator = lines.iterator();
+                while (!stopped && lineIterator.hasNext()) {
+                    String line = lineIterator.next();
+                    if (line.isEmpty()) {
+                        // A blank line ends an event
+                        if (eventName != null && !onEvent(eventName, eventData.toString())) {
+                            return;
+                        }
+                        eventName = null;
+                        eventData.setLength(0);
+                    } else if (line.startsWith("event:")) {
+                        eventName = line.substring("event:".length()).trim();
+                    } else if (line.startsWith("data:")) {
+                        eventData.append(line.substring("data:".length()).trim());
+                    }
+                    if (isIdle()) {
+                        // Firebase sends a keep-alive event every 30 seconds so an idle stream is noticed here
+                        stopped = true;
+                    }
+                }
+            } finally {
+                currentLines = null;
+            }
+        }
+
+        /**
+         * Apply one event to the replica.
+         *
+         * @return false if the connection must be opened again to load the data again
+         */
+        boolean onEvent(String eventName, String eventData) {
+            switch (eventName) {
+                case "put", "patch" -> {
+                    JsonObject message;
+                    try (JsonReader reader = Json.createReader(new StringReader(eventData))) {
+                        message = reader.readObject();
+                    }
+                    apply(eventName.equals("put"), message.getString("path"), message.get("data"));
+                    return true;
+                }
+                case "cancel", "auth_revoked" -> {
+                    LOG.log(Level.INFO, "Task stream of tenant {0} received {1}", new Object[]{tenantId, eventName});
+                    return false;
+                }
+                default -> {
+                    // keep-alive
+                    return true;
+                }
+            }
+        }
+
+        /**
+         * Apply the data of a put event, or of a patch event, at the path of the event.
+         * Each key of the data of a patch event is a path relative to the path of the event, such as
+         * `{id}/done` for a multi-path PATCH that only writes one property of a Task,
+         * so each key is applied as a put at its own path.
+         */
+        private void apply(boolean put, String path, JsonValue data) {
+            if (!put) {
+                if (data instanceof JsonObject dataObject) {
+                    dataObject.forEach((relativePath, value) -> apply(true, path + "/" + relativePath, value));
+                }
+                return;
+            }
+            String[] pathSegments = Arrays.stream(path.split("/"))
+                    .filter(segment -> !segment.isEmpty())
+                    .toArray(String[]::new);
+            if (pathSegments.length == 0) {
+                // All the data of the tenant
+                var newTasksById = new ConcurrentHashMap<String, JsonObject>();
+                if (data instanceof JsonObject dataObject) {
+                    dataObject.forEach((id, value) -> {
+                        if (value instanceof JsonObject taskObject) {
+                            newTasksById.put(id, taskObject);
+                        }
+                    });
+                }
+                tasksById = newTasksById;
+                live = true;
+            } else if (pathSegments.length == 1) {
+                if (data instanceof JsonObject taskObject) {
+                    tasksById.put(pathSegments[0], taskObject);
+                } else {
+                    tasksById.remove(pathSegments[0]);
+                }
+            } else {
+                // A single property of a Task
+                String propertyName = pathSegments[1];
+                tasksById.compute(pathSegments[0], (id, existing) -> {
+                    var builder = existing == null ? Json.createObjectBuilder() : Json.createObjectBuilder(existing);
+                    if (data == null || data.getValueType() == JsonValue.ValueType.NULL) {
+                        builder.remove(propertyName);
+                    } else {
+                        builder.add(propertyName, data);
+                    }
+                    JsonObject changed = builder.build();
+                    // Firebase removes a node when its last property is removed
+                    return changed.isEmpty() ? null : changed;
+                });
+            }
+        }
+    }
+}
@@ -1,7 +1,9 @@
 package dmit2015.service;
 
 import dmit2015.model.Task;
+import dmit2015.model.TaskQuery;
 
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
 
@@ -16,4 +18,49 @@ public interface TaskService {
     Task updateTask(Task task);
 
     void deleteTaskById(String id);
-}
\ No newline at end of file
+
+    /**
+     * Return the Task that match the query in ascending order.
+     * Implementations that can filter at the data source should override this method so only the matching Task are read.
+     */
+    default List<Task> findTasks(TaskQuery query) {
+        return query.apply(getAllTasks());
+    }
+
+    /**
+     * Return the number of Task that match the query ignoring its limits.
+     */
+    default long countTasks(TaskQuery query) {
+        return findTasks(query.withoutLimits()).size();
+    }
+
+    /**
+     * Create, update and delete many Task. After this method returns the id of each new Task has been set.
+     * Implementations that can write many objects in one request should override this method.
+     *
+     * @param newTasks     the Task to create
+     * @param updatedTasks the Task to replace with the new values
+     * @param deletedIds   the id of each Task to delete
+     */
+    default void applyBatch(List<Task> newTasks, List<Task> updatedTasks, List<String> deletedIds) {
+        newTasks.forEach(task -> task.setId(createTask(task).getId()));
+        updatedTasks.forEach(this::updateTask);
+        deletedIds.forEach(this::deleteTaskById);
+    }
+
+    /**
+     * Set done to true for each Task with an id in `ids` without changing its other properties.
+     * Implementations that can change one property of many objects in one request should override this method.
+     *
+     * @return the id of each Task that was found and marked done
+     */
+    default List<String> markTasksDone(List<String> ids) {
+        List<String> markedIds = new ArrayList<>();
+        ids.forEach(id -> getTaskById(id).ifPresent(task -> {
+            task.setDone(true);
+            updateTask(task);
+            markedIds.add(id);
+        }));
+        return markedIds;
+    }
+}
@@ -0,0 +1,55 @@
+package dmit2015.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class FirebasePushIdGeneratorTest {
+
+    private static final String PUSH_CHARS = "-0123456789ABCDEFGHIJKLMNOPQRSTUVWXYZ_abcdefghijklmnopqrstuvwxyz";
+
+    @Test
+    void shouldSortIdsCreatedInSameMillisecondInCreationOrder() {
+        List<String> ids = new ArrayList<>();
+        for (int count = 0; count < 10_000; count++) {
+            ids.add(FirebasePushIdGenerator.nextId());
+        }
+
+        int sameMillisecondCount = 0;
+        for (int index = 1; index < ids.size(); index++) {
+            String previousId = ids.get(index - 1);
+            String id = ids.get(index);
+            assertTrue(previousId.compareTo(id) < 0, previousId + " must sort before " + id);
+            if (previousId.substring(0, 8).equals(id.substring(0, 8))) {
+                sameMillisecondCount++;
+            }
+        }
+        // Thousands of ids cannot all be created in different milliseconds
+        assertTrue(sameMillisecondCount > 0);
+    }
+
+    @Test
+    void shouldSortIdsCreatedInLaterMillisecondAfterEarlierIds() throws InterruptedException {
+        String firstId = FirebasePushIdGenerator.nextId();
+        Thread.sleep(2);
+        String secondId = FirebasePushIdGenerator.nextId();
+
+        assertTrue(firstId.substring(0, 8).compareTo(secondId.substring(0, 8)) < 0);
+        assertTrue(firstId.compareTo(secondId) < 0);
+    }
+
+    @Test
+    void shouldCreateTwentyCharactersFromFirebaseAlphabet() {
+        for (int count = 0; count < 1_000; count++) {
+            String id = FirebasePushIdGenerator.nextId();
+
+            assertEquals(20, id.length());
+            for (char character : id.toCharArray()) {
+                assertTrue(PUSH_CHARS.indexOf(character) >= 0, "Unexpected character " + character + " in " + id);
+            }
+        }
+    }
+}
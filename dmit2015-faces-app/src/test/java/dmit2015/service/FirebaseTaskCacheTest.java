@@ -0,0 +1,102 @@
+package dmit2015.service;
+
+import dmit2015.model.Task;
+import dmit2015.model.TaskPriority;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class FirebaseTaskCacheTest {
+
+    private static final String TENANT_ID = "tenant1";
+
+    private final FirebaseTaskCache taskCache = new FirebaseTaskCache(10, 60);
+
+    @Test
+    void shouldKeepWriteThatFinishedWhileGetWasRunning() {
+        taskCache.refresh(TENANT_ID, taskCache.generation(TENANT_ID), "etag1", () -> List.of(task("1", "Old description")));
+
+        // The GET is sent, then a write is saved before the GET response arrives
+        long generation = taskCache.generation(TENANT_ID);
+        taskCache.putTask(TENANT_ID, task("1", "New description"));
+        List<Task> responseTasks = taskCache.refresh(TENANT_ID, generation, "etag2", () -> List.of(task("1", "Old description")));
+
+        assertEquals("Old description", responseTasks.getFirst().getDescription());
+        assertEquals("New description", taskCache.findFresh(TENANT_ID).orElseThrow().getFirst().getDescription());
+    }
+
+    @Test
+    void shouldKeepWriteThatFinishedWhileSlowLoadWasRunning() throws Exception {
+        taskCache.refresh(TENANT_ID, taskCache.generation(TENANT_ID), "etag1", () -> List.of(task("1", "Old description")));
+
+        var loadStarted = new CountDownLatch(1);
+        var writeSaved = new CountDownLatch(1);
+        long generation = taskCache.generation(TENANT_ID);
+        CompletableFuture<List<Task>> slowGet = CompletableFuture.supplyAsync(() ->
+                taskCache.refresh(TENANT_ID, generation, "etag2", () -> {
+                    loadStarted.countDown();
+                    await(writeSaved);
+                    return List.of(task("1", "Old description"), task("2", "Deleted task"));
+                }));
+
+        await(loadStarted);
+        taskCache.putTask(TENANT_ID, task("1", "New description"));
+        writeSaved.countDown();
+        slowGet.get(10, TimeUnit.SECONDS);
+
+        List<Task> cachedTasks = taskCache.findFresh(TENANT_ID).orElseThrow();
+        assertEquals(1, cachedTasks.size());
+        assertEquals("New description", cachedTasks.getFirst().getDescription());
+    }
+
+    @Test
+    void shouldNotCacheGetThatStartedBeforeDelete() {
+        long generation = taskCache.generation(TENANT_ID);
+        taskCache.removeTask(TENANT_ID, "2");
+        taskCache.refresh(TENANT_ID, generation, "etag1", () -> List.of(task("1", "First task"), task("2", "Deleted task")));
+
+        assertTrue(taskCache.findFresh(TENANT_ID).isEmpty());
+    }
+
+    @Test
+    void shouldCacheGetWhenNothingChanged() {
+        taskCache.putTask("tenant2", task("3", "Other tenant"));
+
+        long generation = taskCache.generation(TENANT_ID);
+        taskCache.refresh(TENANT_ID, generation, "etag1", () -> List.of(task("1", "First task")));
+
+        assertEquals(List.of(task("1", "First task")), taskCache.findFresh(TENANT_ID).orElseThrow());
+    }
+
+    @Test
+    void shouldNotReuseGenerationOfRemovedTenant() {
+        var smallCache = new FirebaseTaskCache(1, 60);
+        long generation = smallCache.generation(TENANT_ID);
+        smallCache.putTask(TENANT_ID, task("1", "First task"));
+        // Only one tenant is kept so the generation of the first tenant is removed
+        smallCache.putTask("tenant2", task("2", "Other tenant"));
+
+        assertNotEquals(generation, smallCache.generation(TENANT_ID));
+    }
+
+    private static Task task(String id, String description) {
+        var task = new Task();
+        task.setId(id);
+        task.setDescription(description);
+        task.setPriority(TaskPriority.Low);
+        return task;
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            assertTrue(latch.await(10, TimeUnit.SECONDS));
+        } catch (InterruptedException e) {
+            throw new RuntimeException(e);
+        }
+    }
+}
@@ -0,0 +1,72 @@
+package dmit2015.service;
+
+import jakarta.json.JsonObject;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class FirebaseTaskReplicaTest {
+
+    private FirebaseTaskReplica.TenantStream stream;
+
+    @BeforeEach
+    void loadTasks() {
+        stream = new FirebaseTaskReplica().new TenantStream("tenant1", "token1");
+        stream.onEvent("put", """
+                {"path":"/","data":{
+                  "a":{"description":"First task","priority":"Low","done":false},
+                  "b":{"description":"Second task","priority":"High","done":false}}}
+                """);
+    }
+
+    @Test
+    void shouldApplyEachPathOfRootPatch() {
+        stream.onEvent("patch", """
+                {"path":"/","data":{"a/done":true,"b/done":true}}
+                """);
+
+        assertTrue(task("a").getBoolean("done"));
+        assertEquals("First task", task("a").getString("description"));
+        assertTrue(task("b").getBoolean("done"));
+        assertEquals("High", task("b").getString("priority"));
+    }
+
+    @Test
+    void shouldApplyTasksAndPropertiesOfSameRootPatch() {
+        stream.onEvent("patch", """
+                {"path":"/","data":{
+                  "a/description":"Changed task",
+                  "b":null,
+                  "c":{"description":"New task","priority":"Medium","done":false}}}
+                """);
+
+        assertEquals("Changed task", task("a").getString("description"));
+        assertFalse(task("a").getBoolean("done"));
+        assertNull(task("b"));
+        assertEquals("New task", task("c").getString("description"));
+    }
+
+    @Test
+    void shouldApplyPatchOfOneTask() {
+        stream.onEvent("patch", """
+                {"path":"/a","data":{"done":true,"description":null}}
+                """);
+
+        assertTrue(task("a").getBoolean("done"));
+        assertFalse(task("a").containsKey("description"));
+    }
+
+    @Test
+    void shouldApplyPutOfOneProperty() {
+        stream.onEvent("put", """
+                {"path":"/b/done","data":true}
+                """);
+
+        assertTrue(task("b").getBoolean("done"));
+    }
+
+    private JsonObject task(String id) {
+        return stream.tasksById.get(id);
+    }
+}
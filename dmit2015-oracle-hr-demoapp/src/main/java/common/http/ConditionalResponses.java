@@ -0,0 +1,94 @@
+package common.http;
+
+import jakarta.json.bind.Jsonb;
+import jakarta.json.bind.JsonbBuilder;
+import jakarta.ws.rs.core.EntityTag;
+import jakarta.ws.rs.core.Request;
+import jakarta.ws.rs.core.Response;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.HexFormat;
+import java.util.Objects;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+/**
+ * This class contains class-level (static) methods for building HTTP conditional GET responses.
+ * A response includes an ETag header and a request with a matching If-None-Match header
+ * is answered with "304 Not Modified" and no body.
+ * <p>
+ * The following example returns a TodoItem with an ETag created from its id and version.
+ * {@snippet :
+ *      @GET
+ *      @Path("{id}")
+ *      public Response getTodoItem(@PathParam("id") Long id, @Context Request request) {
+ *          TodoItem existingTodoItem = todoItemRepository.findById(id).orElseThrow(NotFoundException::new);
+ *          EntityTag entityTag = ConditionalResponses.entityTag(existingTodoItem.getId(), existingTodoItem.getVersion());
+ *          return ConditionalResponses.ok(request, entityTag, () -> TodoItemMapper.INSTANCE.toDto(existingTodoItem));
+ *      }
+ * }
+ */
+public final class ConditionalResponses {
+
+    // Jsonb instances are thread-safe and expensive to create so share a single instance
+    private static final Jsonb JSONB = JsonbBuilder.create();
+
+    private ConditionalResponses() {
+    }
+
+    /**
+     * Create a strong ETag for a single entity from its id and its @Version value.
+     */
+    public static EntityTag entityTag(Object id, Object version) {
+        return new EntityTag(id + "-" + version);
+    }
+
+    /**
+     * Create a weak ETag from values that change whenever a collection changes,
+     * such as the row count and the maximum version or update time.
+     * The values are hashed with SHA-256 so different values do not share the same ETag.
+     */
+    public static EntityTag weakEntityTag(Object... collectionStateValues) {
+        String value = Arrays.stream(collectionStateValues)
+                .map(Objects::toString)
+                .collect(Collectors.joining("-"));
+        return new EntityTag(sha256(value), true);
+    }
+
+    /**
+     * Create a strong ETag from the JSON representation of an entity that has no version column.
+     * The ETag is the SHA-256 hash of the JSON that is returned in the response body.
+     */
+    public static EntityTag contentEntityTag(Object entity) {
+        return new EntityTag(sha256(JSONB.toJson(entity)));
+    }
+
+    /**
+     * Return "304 Not Modified" if the If-None-Match header of the request matches `entityTag`,
+     * otherwise return "200 OK" with the entity from `entitySupplier`. Both responses include the ETag header.
+     *
+     * @param request the current request
+     * @param entityTag the ETag of the current representation
+     * @param entitySupplier creates the response body, only called when the client does not have the current representation
+     */
+    public static Response ok(Request request, EntityTag entityTag, Supplier<?> entitySupplier) {
+        Response.ResponseBuilder notModifiedResponseBuilder = request.evaluatePreconditions(entityTag);
+        if (notModifiedResponseBuilder != null) {
+            return notModifiedResponseBuilder.tag(entityTag).build();
+        }
+        return Response.ok(entitySupplier.get()).tag(entityTag).build();
+    }
+
+    private static String sha256(String value) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(value.getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(digest);
+        } catch (NoSuchAlgorithmException ex) {
+            // Every Java platform is required to support SHA-256
+            throw new RuntimeException(ex);
+        }
+    }
+}
@@ -0,0 +1,148 @@
+package common.search;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+
+/**
+ * This class is an immutable, thread-safe in-memory index for case-insensitive autocomplete searches
+ * on a text property of a collection of objects.
+ * <p>
+ * The keys are stored in a sorted array so that prefix matches are found with a binary search.
+ * Infix matches are found using postings lists of the 3-character grams (trigrams) of each key.
+ * Prefix matches are returned before infix matches and each group is in key order.
+ * <p>
+ * The following example searches for departments that contain "ad".
+ * {@snippet :
+ *      var departmentIndex = new TextSearchIndex<>(departments, Department::getDepartmentName);
+ *      List<Department> suggestions = departmentIndex.search("ad", 10);
+ * }
+ *
+ * @param <T> The type of object in the index.
+ */
+public final class TextSearchIndex<T> {
+
+    private static final int GRAM_LENGTH = 3;
+
+    private final String[] sortedKeys;
+    private final List<T> sortedItems;
+    private final Map<String, int[]> gramPostings;
+
+    public TextSearchIndex(Collection<T> items, Function<T, String> keyExtractor) {
+        List<T> sortedItemList = items.stream()
+                .filter(item -> keyExtractor.apply(item) != null)
+                .sorted(Comparator.comparing(item -> normalize(keyExtractor.apply(item))))
+                .toList();
+        sortedItems = sortedItemList;
+        sortedKeys = sortedItemList.stream()
+                .map(item -> normalize(keyExtractor.apply(item)))
+                .toArray(String[]::new);
+
+        // Positions are added in ascending order so each postings list is already sorted
+        Map<String, List<Integer>> postings = new HashMap<>();
+        for (int position = 0; position < sortedKeys.length; position++) {
+            for (String gram : grams(sortedKeys[position])) {
+                postings.computeIfAbsent(gram, key -> new ArrayList<>()).add(position);
+            }
+        }
+        Map<String, int[]> postingArrays = new HashMap<>();
+        postings.forEach((gram, positions) ->
+                postingArrays.put(gram, positions.stream().mapToInt(Integer::intValue).toArray()));
+        gramPostings = postingArrays;
+    }
+
+    /**
+     * Return up to `limit` objects whose key starts with or contains the `query`, ignoring case.
+     * An empty query returns the first `limit` objects in key order.
+     */
+    public List<T> search(String query, int limit) {
+        List<T> results = new ArrayList<>();
+        if (limit <= 0) {
+            return results;
+        }
+        String normalizedQuery = query == null ? "" : normalize(query);
+
+        // Prefix matches are next to each other in the sorted keys
+        int position = lowerBound(normalizedQuery);
+        while (position < sortedKeys.length
+                && sortedKeys[position].startsWith(normalizedQuery)
+                && results.size() < limit) {
+            results.add(sortedItems.get(position));
+            position++;
+        }
+        if (results.size() == limit || normalizedQuery.isEmpty()) {
+            return results;
+        }
+
+        for (int candidate : infixCandidates(normalizedQuery)) {
+            if (results.size() == limit) {
+                break;
+            }
+            String key = sortedKeys[candidate];
+            if (!key.startsWith(normalizedQuery) && key.contains(normalizedQuery)) {
+                results.add(sortedItems.get(candidate));
+            }
+        }
+        return results;
+    }
+
+    public int size() {
+        return sortedKeys.length;
+    }
+
+    private int[] infixCandidates(String normalizedQuery) {
+        if (normalizedQuery.length() < GRAM_LENGTH) {
+            // Too short for a gram lookup; the caller checks each key with contains()
+            int[] allPositions = new int[sortedKeys.length];
+            for (int position = 0; position < allPositions.length; position++) {
+                allPositions[position] = position;
+            }
+            return allPositions;
+        }
+        // Every match must contain every gram of the query, so the shortest postings list is enough
+        int[] shortestPostings = null;
+        for (String gram : grams(normalizedQuery)) {
+            int[] postings = gramPostings.get(gram);
+            if (postings == null) {
+                return new int[0];
+            }
+            if (shortestPostings == null || postings.length < shortestPostings.length) {
+                shortestPostings = postings;
+            }
+        }
+        return shortestPostings;
+    }
+
+    private int lowerBound(String normalizedQuery) {
+        int low = 0;
+        int high = sortedKeys.length;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (sortedKeys[middle].compareTo(normalizedQuery) < 0) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low;
+    }
+
+    private static Set<String> grams(String key) {
+        Set<String> grams = new HashSet<>();
+        for (int start = 0; start + GRAM_LENGTH <= key.length(); start++) {
+            grams.add(key.substring(start, start + GRAM_LENGTH));
+        }
+        return grams;
+    }
+
+    private static String normalize(String value) {
+        return value.trim().toLowerCase(Locale.ROOT);
+    }
+}
@@ -1,14 +1,21 @@
 package common.validation;
 
-import jakarta.json.Json;
-import jakarta.json.JsonObjectBuilder;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.validation.ConstraintViolation;
 import jakarta.validation.Validation;
+import jakarta.validation.Validator;
+import jakarta.validation.ValidatorFactory;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
 
 /**
- * This class contains a single class-level (static) method checking for Jakarta Validation
- * constraint annotation violations in a JavaBean and returning a JSON object string that
- * contains the name and message of each validation error.
+ * This class checks for Jakarta Validation constraint annotation violations in a JavaBean and returns
+ * a JSON object string that contains the name and message of each validation error.
  * <p>
+ * The Validator is created once and shared as it is thread-safe and expensive to bootstrap.
+ * The class can be injected as an application scoped CDI bean or called through the class-level (static) method.
  * The following example shows how to validate a Region object named newRegion.
  * {@snippet :
  *      String errorMessage = JavaBeanValidator.validateBean(newRegion);
@@ -20,31 +27,95 @@
  *      }
  * }
  *
- * @version 2024.06.24
+ * @version 2026.10.17
  */
+@ApplicationScoped
 public class JavaBeanValidator {
 
+    /**
+     * Lazily bootstraps a single ValidatorFactory the first time it is used (initialization-on-demand holder).
+     */
+    private static final class ValidatorHolder {
+        private static final ValidatorFactory VALIDATOR_FACTORY = Validation.buildDefaultValidatorFactory();
+        private static final Validator VALIDATOR = VALIDATOR_FACTORY.getValidator();
+    }
+
+    /**
+     * Remembers for each class if it declares any constraints so that unconstrained classes skip validation.
+     */
+    private static final ClassValue<Boolean> BEAN_CONSTRAINED = new ClassValue<>() {
+        @Override
+        protected Boolean computeValue(Class<?> type) {
+            return ValidatorHolder.VALIDATOR.getConstraintsForClass(type).isBeanConstrained();
+        }
+    };
+
     /**
      * Check the `typeInstance` parameter for Jakarta Validation constraint annotation violations
      * and return a JSON object string with the name and error message for each validation error.
      *
      * @param typeInstance The object with bean validation constraint annotations to validate.
-     * @param <T>          This is a generic method that can operator on a type specified by the caller.
      * @return A JSON object String with the property name and message for each validation error message.
+     * @param <T> This is a generic method that can operator on a type specified by the caller.
+     */
+    public <T> String validate(T typeInstance) {
+        return validateBean(typeInstance);
+    }
+
+    /**
+     * Check the `typeInstance` parameter for Jakarta Validation constraint annotation violations
+     * and return a JSON object string with the name and error message for each validation error.
+     *
+     * @param typeInstance The object with bean validation constraint annotations to validate.
+     * @return A JSON object String with the property name and message for each validation error message.
+     * @param <T> This is a generic method that can operator on a type specified by the caller.
      */
     public static <T> String validateBean(T typeInstance) {
+        if (!BEAN_CONSTRAINED.get(typeInstance.getClass())) {
+            return null;
+        }
 
-        try (var validatorFactory = Validation.buildDefaultValidatorFactory()) {
-            var constraintViolations = validatorFactory.getValidator().validate(typeInstance);
-            if (!constraintViolations.isEmpty()) {
-                JsonObjectBuilder jsonObjectBuilder = Json.createObjectBuilder();
-                for (var singleConstraintViolation : constraintViolations) {
-                    jsonObjectBuilder.add(singleConstraintViolation.getPropertyPath().toString(), singleConstraintViolation.getMessage());
-                }
-                return jsonObjectBuilder.build().toString();
+        Set<ConstraintViolation<T>> constraintViolations = ValidatorHolder.VALIDATOR.validate(typeInstance);
+        if (constraintViolations.isEmpty()) {
+            return null;
+        }
+
+        // Keep only the last message for each property, the same as adding duplicate names to a JsonObjectBuilder
+        Map<String, String> messagesByProperty = new LinkedHashMap<>();
+        for (var singleConstraintViolation : constraintViolations) {
+            messagesByProperty.put(singleConstraintViolation.getPropertyPath().toString(), singleConstraintViolation.getMessage());
+        }
+        StringBuilder json = new StringBuilder("{");
+        for (var entry : messagesByProperty.entrySet()) {
+            if (json.length() > 1) {
+                json.append(',');
             }
+            appendJsonString(json, entry.getKey());
+            json.append(':');
+            appendJsonString(json, entry.getValue());
         }
+        return json.append('}').toString();
+    }
 
-        return null;
+    private static void appendJsonString(StringBuilder json, String value) {
+        json.append('"');
+        for (int index = 0; index < value.length(); index++) {
+            char currentChar = value.charAt(index);
+            switch (currentChar) {
+                case '"' -> json.append("\\\"");
+                case '\\' -> json.append("\\\\");
+                case '\n' -> json.append("\\n");
+                case '\r' -> json.append("\\r");
+                case '\t' -> json.append("\\t");
+                default -> {
+                    if (currentChar < 0x20) {
+                        json.append(String.format("\\u%04x", (int) currentChar));
+                    } else {
+                        json.append(currentChar);
+                    }
+                }
+            }
+        }
+        json.append('"');
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,32 @@
+package dmit2015.dto;
+
+import java.io.Serializable;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+/**
+ * A read-only projection of an Employee with only the columns shown in the employee query results.
+ * Instances are created directly by a JPQL constructor expression so no Employee entity,
+ * and none of its lazy collections, are loaded into the persistence context.
+ */
+public record EmployeeSummaryDto(
+        Integer id,
+        String firstName,
+        String lastName,
+        String email,
+        LocalDate hireDate,
+        BigDecimal salary,
+        String jobTitle,
+        String managerFirstName,
+        String managerLastName,
+        String departmentName
+) implements Serializable {
+
+    public String fullName() {
+        return String.format("%s %s", firstName, lastName);
+    }
+
+    public String managerFullName() {
+        return managerLastName == null ? null : String.format("%s %s", managerFirstName, managerLastName);
+    }
+}
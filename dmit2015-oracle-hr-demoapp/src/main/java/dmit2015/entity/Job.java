@@ -5,6 +5,8 @@
 import jakarta.validation.constraints.Size;
 import lombok.Getter;
 import lombok.Setter;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 
 import java.util.LinkedHashSet;
 import java.util.Set;
@@ -12,6 +14,8 @@
 @Getter
 @Setter
 @Entity
+@Cacheable  // Reference data that rarely changes is kept in the second-level cache
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
 @Table(name = "JOBS")
 public class Job {
     @Id
@@ -5,12 +5,16 @@
 import jakarta.validation.constraints.Size;
 import lombok.Getter;
 import lombok.Setter;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 import org.hibernate.annotations.OnDelete;
 import org.hibernate.annotations.OnDeleteAction;
 
 @Getter
 @Setter
 @Entity
+@Cacheable  // Reference data that rarely changes is kept in the second-level cache
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
 @Table(name = "LOCATIONS")
 public class Location {
     @Id
@@ -1,8 +1,12 @@
 package dmit2015.repository;
 
+import dmit2015.dto.EmployeeSummaryDto;
 import dmit2015.entity.Department;
 import dmit2015.entity.Employee;
 import dmit2015.entity.Job;
+import jakarta.data.Order;
+import jakarta.data.page.Page;
+import jakarta.data.page.PageRequest;
 import jakarta.data.repository.Find;
 import jakarta.data.repository.Query;
 import jakarta.data.repository.Repository;
@@ -19,12 +23,19 @@ where lower(d.departmentName) like lower(?1)
 """)
     List<Department> departmentsBy(String partialDepartmentName);
 
+    /*
+     * Constructor expression projections that read only the columns shown in the query results.
+     * Outer joins are used so employees without a manager or department are included.
+     */
     @Query("""
-select e
- from Employee e join fetch e.department join fetch e.manager join fetch e.job
- where e.department.id = ?1
+select new dmit2015.dto.EmployeeSummaryDto(
+  e.id, e.firstName, e.lastName, e.email, e.hireDate, e.salary,
+  j.jobTitle, m.firstName, m.lastName, d.departmentName)
+ from Employee e join e.job j left join e.manager m left join e.department d
+ where d.id = ?1
+ order by e.lastName, e.firstName
 """)
-    List<Employee> employeesByDepartmentId(Short deptId);
+    List<EmployeeSummaryDto> employeeSummaryListByDepartmentId(Short deptId);
 
     @Find
     Department departmentByDepartmentId(Short id);
@@ -40,10 +51,55 @@ where lower(j.jobTitle) like lower(?1)
     Job jobByJobId(String jobId);
 
     @Query("""
-select e
- from Employee e join fetch e.department join fetch e.manager join fetch e.job
+select new dmit2015.dto.EmployeeSummaryDto(
+  e.id, e.firstName, e.lastName, e.email, e.hireDate, e.salary,
+  j.jobTitle, m.firstName, m.lastName, d.departmentName)
+ from Employee e join e.job j left join e.manager m left join e.department d
+ where j.jobId = ?1
+ order by e.lastName, e.firstName
+""")
+    List<EmployeeSummaryDto> employeeSummaryListByJobId(String jobId);
+
+    /*
+     * Paged queries for the lazy employee query results table. Each page is a list of EmployeeSummaryDto
+     * projections and the total is returned by a separate count query so it can be run only when the
+     * search criteria or filter change. The filter is a lower case "%text%" pattern matched against
+     * the first name, last name and email.
+     */
+    @Query("""
+select new dmit2015.dto.EmployeeSummaryDto(
+  e.id, e.firstName, e.lastName, e.email, e.hireDate, e.salary,
+  j.jobTitle, m.firstName, m.lastName, d.departmentName)
+ from Employee e join e.job j left join e.manager m left join e.department d
+ where d.id = ?1
+ and (lower(e.firstName) like ?2 or lower(e.lastName) like ?2 or lower(e.email) like ?2)
+""")
+    Page<EmployeeSummaryDto> employeeSummariesByDepartmentId(Short deptId, String filterPattern, PageRequest pageRequest, Order<Employee> order);
+
+    @Query("""
+select count(e)
+ from Employee e
+ where e.department.id = ?1
+ and (lower(e.firstName) like ?2 or lower(e.lastName) like ?2 or lower(e.email) like ?2)
+""")
+    long countEmployeesByDepartmentId(Short deptId, String filterPattern);
+
+    @Query("""
+select new dmit2015.dto.EmployeeSummaryDto(
+  e.id, e.firstName, e.lastName, e.email, e.hireDate, e.salary,
+  j.jobTitle, m.firstName, m.lastName, d.departmentName)
+ from Employee e join e.job j left join e.manager m left join e.department d
+ where j.jobId = ?1
+ and (lower(e.firstName) like ?2 or lower(e.lastName) like ?2 or lower(e.email) like ?2)
+""")
+    Page<EmployeeSummaryDto> employeeSummariesByJobId(String jobId, String filterPattern, PageRequest pageRequest, Order<Employee> order);
+
+    @Query("""
+select count(e)
+ from Employee e
  where e.job.jobId = ?1
+ and (lower(e.firstName) like ?2 or lower(e.lastName) like ?2 or lower(e.email) like ?2)
 """)
-    List<Employee> employeesByJobId(String jobId);
+    long countEmployeesByJobId(String jobId, String filterPattern);
 
 }
@@ -0,0 +1,70 @@
+package dmit2015.repository;
+
+import dmit2015.entity.Department;
+import dmit2015.entity.Job;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.hibernate.jpa.HibernateHints;
+
+import java.util.List;
+
+/**
+ * This Jakarta Persistence class contains lookup methods for the HR reference data (Department and Job)
+ * that are served from the second-level cache and query cache configured in persistence.xml.
+ * <p>
+ * The Jakarta Data HumanResourcesRepository runs its queries in a stateless session that always goes to
+ * the database, so the lookups that run on every Faces postback and autocomplete request are defined here.
+ */
+@ApplicationScoped
+public class ReferenceDataRepository {
+
+    public static final String QUERY_CACHE_REGION = "dmit2015.hr-reference-queries";
+
+    // Assign a unitName if there are more than one persistence unit defined in persistence.xml
+    @PersistenceContext //(unitName="pu-name-in-persistence.xml")
+    private EntityManager _entityManager;
+
+    public Department departmentByDepartmentId(Short departmentId) {
+        return _entityManager.find(Department.class, departmentId);
+    }
+
+    public Job jobByJobId(String jobId) {
+        return _entityManager.find(Job.class, jobId);
+    }
+
+    public List<Department> departmentsBy(String partialDepartmentName) {
+        return _entityManager.createQuery("""
+                        select d
+                         from Department d
+                         where lower(d.departmentName) like lower(:partialDepartmentName)
+                         order by d.departmentName
+                        """, Department.class)
+                .setParameter("partialDepartmentName", partialDepartmentName)
+                .setHint(HibernateHints.HINT_CACHEABLE, true)
+                .setHint(HibernateHints.HINT_CACHE_REGION, QUERY_CACHE_REGION)
+                .getResultList();
+    }
+
+    public List<Job> jobsBy(String partialJobTitle) {
+        return _entityManager.createQuery("""
+                        select j
+                         from Job j
+                         where lower(j.jobTitle) like lower(:partialJobTitle)
+                        """, Job.class)
+                .setParameter("partialJobTitle", partialJobTitle)
+                .setHint(HibernateHints.HINT_CACHEABLE, true)
+                .setHint(HibernateHints.HINT_CACHE_REGION, QUERY_CACHE_REGION)
+                .getResultList();
+    }
+
+    public List<Department> findAllDepartments() {
+        return _entityManager.createQuery("select d from Department d order by d.departmentName", Department.class)
+                .getResultList();
+    }
+
+    public List<Job> findAllJobs() {
+        return _entityManager.createQuery("select j from Job j order by j.jobTitle", Job.class)
+                .getResultList();
+    }
+}
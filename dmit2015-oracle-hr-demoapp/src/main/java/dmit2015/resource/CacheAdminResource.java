@@ -0,0 +1,100 @@
+package dmit2015.resource;
+
+import jakarta.annotation.security.RolesAllowed;
+import dmit2015.service.ReferenceDataSearchService;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import jakarta.persistence.EntityManagerFactory;
+import jakarta.persistence.PersistenceUnit;
+import jakarta.ws.rs.*;
+import jakarta.ws.rs.core.MediaType;
+import jakarta.ws.rs.core.Response;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.CacheRegionStatistics;
+import org.hibernate.stat.Statistics;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * This Jakarta RESTful Web Services root resource class provides REST API endpoints to view the
+ * second-level cache statistics and to evict cached data.
+ *  URI						            Http Method     Description
+ * 	----------------------              -----------		------------------------------------------
+ * 	/restapi/admin/cache		        GET			    Hit, miss and put counts for all cache regions
+ * 	/restapi/admin/cache		        DELETE			Evict all entity and query cache regions and rebuild the autocomplete index
+ * 	/restapi/admin/cache/{region}		DELETE			Evict a single cache region
+ */
+@ApplicationScoped
+@Path("admin/cache")                // All methods in this class are associated this URL path
+@Produces(MediaType.APPLICATION_JSON)    // All methods in this class returns data in JSON format
+@RolesAllowed({"Administration"})
+public class CacheAdminResource {
+
+    @PersistenceUnit
+    private EntityManagerFactory entityManagerFactory;
+
+    @Inject
+    private ReferenceDataSearchService referenceDataSearchService;
+
+    @GET    // This method only accepts HTTP GET requests.
+    public Response findCacheStatistics() {
+        SessionFactory sessionFactory = entityManagerFactory.unwrap(SessionFactory.class);
+        Statistics statistics = sessionFactory.getStatistics();
+
+        Map<String, Object> cacheStatistics = new LinkedHashMap<>();
+        cacheStatistics.put("statisticsEnabled", statistics.isStatisticsEnabled());
+        cacheStatistics.put("secondLevelCacheHitCount", statistics.getSecondLevelCacheHitCount());
+        cacheStatistics.put("secondLevelCacheMissCount", statistics.getSecondLevelCacheMissCount());
+        cacheStatistics.put("secondLevelCachePutCount", statistics.getSecondLevelCachePutCount());
+        cacheStatistics.put("queryCacheHitCount", statistics.getQueryCacheHitCount());
+        cacheStatistics.put("queryCacheMissCount", statistics.getQueryCacheMissCount());
+        cacheStatistics.put("queryCachePutCount", statistics.getQueryCachePutCount());
+
+        List<Map<String, Object>> regions = new ArrayList<>();
+        for (String regionName : statistics.getSecondLevelCacheRegionNames()) {
+            CacheRegionStatistics regionStatistics = statistics.getCacheRegionStatistics(regionName);
+            if (regionStatistics != null) {
+                Map<String, Object> region = new LinkedHashMap<>();
+                region.put("regionName", regionName);
+                region.put("hitCount", regionStatistics.getHitCount());
+                region.put("missCount", regionStatistics.getMissCount());
+                region.put("putCount", regionStatistics.getPutCount());
+                region.put("elementCountInMemory", regionStatistics.getElementCountInMemory());
+                regions.add(region);
+            }
+        }
+        cacheStatistics.put("regions", regions);
+
+        return Response.ok(cacheStatistics).build();
+    }
+
+    @DELETE            // This method only accepts HTTP DELETE requests.
+    public Response evictAll() {
+        SessionFactory sessionFactory = entityManagerFactory.unwrap(SessionFactory.class);
+        sessionFactory.getCache().evictAllRegions();
+        referenceDataSearchService.invalidate();
+
+        // Returns an HTTP status "204 No Content" to indicate the cache was cleared
+        return Response.noContent().build();
+    }
+
+    @DELETE            // This method only accepts HTTP DELETE requests.
+    @Path("{region}")    // This method accepts a path parameter and gives it a name of region
+    public Response evictRegion(@PathParam("region") String regionName) {
+        SessionFactory sessionFactory = entityManagerFactory.unwrap(SessionFactory.class);
+        boolean regionExists = Arrays.asList(sessionFactory.getStatistics().getSecondLevelCacheRegionNames())
+                .contains(regionName);
+        if (!regionExists) {
+            throw new NotFoundException();
+        }
+
+        sessionFactory.getCache().evictRegion(regionName);
+
+        // Returns an HTTP status "204 No Content" to indicate the region was cleared
+        return Response.noContent().build();
+    }
+}
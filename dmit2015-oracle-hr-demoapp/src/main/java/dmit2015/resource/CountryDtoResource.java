@@ -1,5 +1,6 @@
 package dmit2015.resource;
 
+import common.http.ConditionalResponses;
 import common.validation.JavaBeanValidator;
 import dmit2015.dto.CountryDto;
 import dmit2015.entity.Country;
@@ -14,6 +15,7 @@
 import jakarta.ws.rs.core.*;
 
 import java.net.URI;
+import java.util.List;
 import java.util.stream.Collectors;
 
 /**
@@ -34,24 +36,28 @@ public class CountryDtoResource {
     private RegionRepository regionRepository;
 
     @GET    // This method only accepts HTTP GET requests.
-    public Response findAllCountrysCountrys() {
-        return Response.ok(
-                countryRepository
-                        .findAll()
-                        .stream()
-                        .map(CountryMapper.INSTANCE::toDto)
-                        .collect(Collectors.toList())
-        ).build();
+    public Response findAllCountrysCountrys(@Context Request request) {
+        List<CountryDto> dtos = countryRepository
+                .findAll()
+                .stream()
+                .map(CountryMapper.INSTANCE::toDto)
+                .collect(Collectors.toList());
+
+        // The COUNTRIES table has no version column so the ETag is created from the content
+        EntityTag entityTag = ConditionalResponses.contentEntityTag(dtos);
+        return ConditionalResponses.ok(request, entityTag, () -> dtos);
     }
 
     @Path("{id}")
     @GET    // This method only accepts HTTP GET requests.
-    public Response findCountryByIdCountryById(@PathParam("id") String countryId) {
+    public Response findCountryByIdCountryById(@PathParam("id") String countryId, @Context Request request) {
         Country existingCountry = countryRepository.findById(countryId).orElseThrow(NotFoundException::new);
 
         CountryDto dto = CountryMapper.INSTANCE.toDto(existingCountry);
 
-        return Response.ok(dto).build();
+        // The COUNTRIES table has no version column so the ETag is created from the content
+        EntityTag entityTag = ConditionalResponses.contentEntityTag(dto);
+        return ConditionalResponses.ok(request, entityTag, () -> dto);
     }
 
     @POST    // This method only accepts HTTP POST requests.
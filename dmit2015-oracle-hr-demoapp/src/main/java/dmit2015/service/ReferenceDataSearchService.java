@@ -0,0 +1,123 @@
+package dmit2015.service;
+
+import common.search.TextSearchIndex;
+import dmit2015.entity.Department;
+import dmit2015.entity.Job;
+import dmit2015.repository.ReferenceDataRepository;
+import jakarta.annotation.Resource;
+import jakarta.enterprise.concurrent.ManagedScheduledExecutorService;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.context.Initialized;
+import jakarta.enterprise.event.Observes;
+import jakarta.inject.Inject;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import java.util.stream.Collectors;
+
+/**
+ * Application-scoped in-memory search index over department names and job titles for autocomplete.
+ * <p>
+ * The index is loaded when the application starts and rebuilt on a fixed schedule or when {@link #invalidate()}
+ * is called. A rebuilt index replaces the current one in a single volatile write, so searches never see a
+ * partially built index and never wait for a rebuild.
+ */
+@ApplicationScoped
+public class ReferenceDataSearchService {
+
+    private static final Logger LOG = Logger.getLogger(ReferenceDataSearchService.class.getName());
+
+    /**
+     * The indexes and id lookups that are replaced together on every refresh.
+     */
+    private static final class Snapshot {
+        private final TextSearchIndex<Department> departmentIndex;
+        private final TextSearchIndex<Job> jobIndex;
+        private final Map<Short, Department> departmentsById;
+        private final Map<String, Job> jobsById;
+
+        private Snapshot(List<Department> departments, List<Job> jobs) {
+            departmentIndex = new TextSearchIndex<>(departments, Department::getDepartmentName);
+            jobIndex = new TextSearchIndex<>(jobs, Job::getJobTitle);
+            departmentsById = departments.stream().collect(Collectors.toUnmodifiableMap(Department::getId, Function.identity()));
+            jobsById = jobs.stream().collect(Collectors.toUnmodifiableMap(Job::getJobId, Function.identity()));
+        }
+    }
+
+    @Inject
+    private ReferenceDataRepository referenceDataRepository;
+
+    @Resource
+    private ManagedScheduledExecutorService scheduledExecutorService;
+
+    @Inject
+    @ConfigProperty(name = "dmit2015.reference-data.search-index.refresh-minutes", defaultValue = "15")
+    private long refreshMinutes;
+
+    // null until the first successful refresh
+    private volatile Snapshot snapshot;
+
+    public void initialize(@Observes @Initialized(ApplicationScoped.class) Object event) {
+        refreshQuietly();
+        scheduledExecutorService.scheduleWithFixedDelay(this::refreshQuietly, refreshMinutes, refreshMinutes, TimeUnit.MINUTES);
+    }
+
+    /**
+     * Reload the departments and jobs from the database and replace the current index.
+     */
+    public void refresh() {
+        List<Department> departments = referenceDataRepository.findAllDepartments();
+        List<Job> jobs = referenceDataRepository.findAllJobs();
+        snapshot = new Snapshot(departments, jobs);
+        LOG.fine(() -> String.format("Indexed %d departments and %d jobs.", departments.size(), jobs.size()));
+    }
+
+    /**
+     * Rebuild the index in the background after the reference data has changed.
+     */
+    public void invalidate() {
+        scheduledExecutorService.execute(this::refreshQuietly);
+    }
+
+    public List<Department> completeDepartment(String query, int limit) {
+        Snapshot currentSnapshot = snapshot;
+        if (currentSnapshot == null) {
+            return referenceDataRepository.departmentsBy("%" + query + "%").stream().limit(limit).toList();
+        }
+        return currentSnapshot.departmentIndex.search(query, limit);
+    }
+
+    public List<Job> completeJob(String query, int limit) {
+        Snapshot currentSnapshot = snapshot;
+        if (currentSnapshot == null) {
+            return referenceDataRepository.jobsBy("%" + query + "%").stream().limit(limit).toList();
+        }
+        return currentSnapshot.jobIndex.search(query, limit);
+    }
+
+    public Department departmentByDepartmentId(Short departmentId) {
+        Snapshot currentSnapshot = snapshot;
+        Department indexedDepartment = currentSnapshot != null ? currentSnapshot.departmentsById.get(departmentId) : null;
+        return indexedDepartment != null ? indexedDepartment : referenceDataRepository.departmentByDepartmentId(departmentId);
+    }
+
+    public Job jobByJobId(String jobId) {
+        Snapshot currentSnapshot = snapshot;
+        Job indexedJob = currentSnapshot != null ? currentSnapshot.jobsById.get(jobId) : null;
+        return indexedJob != null ? indexedJob : referenceDataRepository.jobByJobId(jobId);
+    }
+
+    private void refreshQuietly() {
+        try {
+            refresh();
+        } catch (Exception ex) {
+            // Keep serving the previous index until the next refresh succeeds
+            LOG.log(Level.WARNING, "Unable to refresh the reference data search index", ex);
+        }
+    }
+}
@@ -1,7 +1,7 @@
 package dmit2015.view;
 
 import dmit2015.entity.Department;
-import dmit2015.repository.HumanResourcesRepository;
+import dmit2015.service.ReferenceDataSearchService;
 import jakarta.enterprise.context.ApplicationScoped;
 import jakarta.faces.application.FacesMessage;
 import jakarta.faces.component.UIComponent;
@@ -18,14 +18,14 @@
 public class DepartmentConverter implements Converter<Department> {
 
     @Inject
-    private HumanResourcesRepository hrRepository;
+    private ReferenceDataSearchService referenceDataSearchService;  // served from the in-memory index
 
     @Override
     public Department getAsObject(FacesContext facesContext, UIComponent uiComponent, String value) {
         if (value != null && !value.isBlank()) {
             try {
                 Short departmentId = Short.parseShort(value);
-                return hrRepository.departmentByDepartmentId(departmentId);
+                return referenceDataSearchService.departmentByDepartmentId(departmentId);
             } catch (NumberFormatException e) {
                 throw new ConverterException(new
                         FacesMessage(FacesMessage.SEVERITY_ERROR,"Conversion Error","Not a valid department."));
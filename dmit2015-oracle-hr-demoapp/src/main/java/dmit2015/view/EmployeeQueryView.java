@@ -1,9 +1,10 @@
 package dmit2015.view;
 
+import dmit2015.dto.EmployeeSummaryDto;
 import dmit2015.entity.Department;
-import dmit2015.entity.Employee;
 import dmit2015.entity.Job;
 import dmit2015.repository.HumanResourcesRepository;
+import dmit2015.service.ReferenceDataSearchService;
 import jakarta.annotation.PostConstruct;
 import jakarta.faces.view.ViewScoped;
 import jakarta.inject.Inject;
@@ -30,24 +31,35 @@ public class EmployeeQueryView implements Serializable {
 
     private static final Logger LOG = Logger.getLogger(EmployeeQueryView.class.getName());
 
+    private static final int MAX_SUGGESTIONS = 15;
+
     @Getter @Setter
     private Department selectedDepartment; // the selected POJO from p:AutoComplete
 
     @Inject
     private transient HumanResourcesRepository hrRepository;
 
+    @Inject
+    private transient ReferenceDataSearchService referenceDataSearchService;
+
     public List<Department> completeDepartment(String query) {
-        return hrRepository.departmentsBy("%" + query + "%");
+        return referenceDataSearchService.completeDepartment(query, MAX_SUGGESTIONS);
     }
 
     @Getter
-    private List<Employee> queryResults;
+    private List<EmployeeSummaryDto> queryResults;
+
+    @Getter @Setter
+    private boolean lazyLoading = true;    // load one page of results at a time instead of every result
+
+    @Getter
+    private EmployeeSummaryLazyDataModel lazyQueryResults;
 
     @Getter @Setter
     private Job selectedJob;
 
     public List<Job> completeJob(String query) {
-        return hrRepository.jobsBy("%" + query + "%");
+        return referenceDataSearchService.completeJob(query, MAX_SUGGESTIONS);
     }
 
     @PostConstruct // Runs after @Inject fields are initialized (once per view instance)
@@ -59,7 +71,14 @@ public void init() {
 
     public void onSearchByDepartment() {
         try {
-            queryResults = hrRepository.employeesByDepartmentId(selectedDepartment.getId());
+            if (lazyLoading) {
+                queryResults = null;
+                lazyQueryResults = EmployeeSummaryLazyDataModel.byDepartment(selectedDepartment.getId());
+                Messages.addGlobalInfo("Query returned {0} results.", lazyQueryResults.count(null));
+                return;
+            }
+            lazyQueryResults = null;
+            queryResults = hrRepository.employeeSummaryListByDepartmentId(selectedDepartment.getId());
             Messages.addGlobalInfo("Query returned {0} results.", queryResults.size());
         } catch (Exception ex) {
             handleException(ex,"Error fetching employees by department");
@@ -68,7 +87,14 @@ public void onSearchByDepartment() {
 
     public void onSearchByJob() {
         try {
-            queryResults = hrRepository.employeesByJobId(selectedJob.getJobId());
+            if (lazyLoading) {
+                queryResults = null;
+                lazyQueryResults = EmployeeSummaryLazyDataModel.byJob(selectedJob.getJobId());
+                Messages.addGlobalInfo("Query returned {0} results", lazyQueryResults.count(null));
+                return;
+            }
+            lazyQueryResults = null;
+            queryResults = hrRepository.employeeSummaryListByJobId(selectedJob.getJobId());
             Messages.addGlobalInfo("Query returned {0} results", queryResults.size());
         } catch (Exception ex) {
             handleException(ex, "Error fetching employees by job");
@@ -77,6 +103,7 @@ public void onSearchByJob() {
 
     public void onClear() {
         queryResults = null;
+        lazyQueryResults = null;
         selectedDepartment = null;
     }
 
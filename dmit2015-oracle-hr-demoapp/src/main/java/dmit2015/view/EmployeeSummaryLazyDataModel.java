@@ -0,0 +1,138 @@
+package dmit2015.view;
+
+import dmit2015.dto.EmployeeSummaryDto;
+import dmit2015.entity.Employee;
+import dmit2015.repository.HumanResourcesRepository;
+import jakarta.data.Order;
+import jakarta.data.Sort;
+import jakarta.data.page.PageRequest;
+import jakarta.enterprise.inject.spi.CDI;
+import org.primefaces.model.FilterMeta;
+import org.primefaces.model.LazyDataModel;
+import org.primefaces.model.SortMeta;
+import org.primefaces.model.SortOrder;
+
+import java.io.Serial;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * PrimeFaces lazy data model that loads one page of EmployeeSummaryDto at a time for either
+ * a department or a job. Only the current page is kept in the view state.
+ * <p>
+ * The total row count comes from a separate count query that only runs again when the global filter changes.
+ */
+public class EmployeeSummaryLazyDataModel extends LazyDataModel<EmployeeSummaryDto> {
+    @Serial
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * The table columns that can be sorted and the Employee attribute each one is sorted by.
+     */
+    private static final Map<String, String> SORTABLE_ATTRIBUTES = Map.of(
+            "lastName", "lastName",
+            "email", "email",
+            "hireDate", "hireDate",
+            "salary", "salary"
+    );
+
+    private final Short departmentId;
+    private final String jobId;
+
+    private transient HumanResourcesRepository hrRepository;
+
+    private String countedFilterPattern;
+    private int countedRows;
+
+    public static EmployeeSummaryLazyDataModel byDepartment(Short departmentId) {
+        return new EmployeeSummaryLazyDataModel(departmentId, null);
+    }
+
+    public static EmployeeSummaryLazyDataModel byJob(String jobId) {
+        return new EmployeeSummaryLazyDataModel(null, jobId);
+    }
+
+    private EmployeeSummaryLazyDataModel(Short departmentId, String jobId) {
+        this.departmentId = departmentId;
+        this.jobId = jobId;
+    }
+
+    @Override
+    public int count(Map<String, FilterMeta> filterBy) {
+        String filterPattern = filterPattern(filterBy);
+        if (!Objects.equals(filterPattern, countedFilterPattern)) {
+            long rowCount = departmentId != null
+                    ? hrRepository().countEmployeesByDepartmentId(departmentId, filterPattern)
+                    : hrRepository().countEmployeesByJobId(jobId, filterPattern);
+            countedRows = Math.toIntExact(rowCount);
+            countedFilterPattern = filterPattern;
+        }
+        return countedRows;
+    }
+
+    @Override
+    public List<EmployeeSummaryDto> load(int first, int pageSize, Map<String, SortMeta> sortBy, Map<String, FilterMeta> filterBy) {
+        String filterPattern = filterPattern(filterBy);
+        // The total is returned by count() so the page query does not need to compute it
+        PageRequest pageRequest = PageRequest.ofPage(first / pageSize + 1, pageSize, false);
+        Order<Employee> order = order(sortBy);
+        return departmentId != null
+                ? hrRepository().employeeSummariesByDepartmentId(departmentId, filterPattern, pageRequest, order).content()
+                : hrRepository().employeeSummariesByJobId(jobId, filterPattern, pageRequest, order).content();
+    }
+
+    @Override
+    public String getRowKey(EmployeeSummaryDto employeeSummary) {
+        return String.valueOf(employeeSummary.id());
+    }
+
+    @Override
+    public EmployeeSummaryDto getRowData(String rowKey) {
+        List<EmployeeSummaryDto> currentPage = getWrappedData();
+        if (currentPage != null) {
+            for (EmployeeSummaryDto employeeSummary : currentPage) {
+                if (getRowKey(employeeSummary).equals(rowKey)) {
+                    return employeeSummary;
+                }
+            }
+        }
+        return null;
+    }
+
+    private HumanResourcesRepository hrRepository() {
+        // The repository is not serializable so it is looked up again after the view is restored
+        if (hrRepository == null) {
+            hrRepository = CDI.current().select(HumanResourcesRepository.class).get();
+        }
+        return hrRepository;
+    }
+
+    private static String filterPattern(Map<String, FilterMeta> filterBy) {
+        FilterMeta globalFilter = filterBy != null ? filterBy.get(FilterMeta.GLOBAL_FILTER_KEY) : null;
+        Object filterValue = globalFilter != null ? globalFilter.getFilterValue() : null;
+        String filterText = filterValue != null ? filterValue.toString().trim().toLowerCase(Locale.ROOT) : "";
+        return "%" + filterText + "%";
+    }
+
+    private static Order<Employee> order(Map<String, SortMeta> sortBy) {
+        List<Sort<Employee>> sorts = new ArrayList<>();
+        if (sortBy != null) {
+            for (SortMeta sortMeta : sortBy.values()) {
+                String attribute = SORTABLE_ATTRIBUTES.get(sortMeta.getField());
+                if (attribute != null && sortMeta.getOrder() != SortOrder.UNSORTED) {
+                    sorts.add(sortMeta.getOrder() == SortOrder.DESCENDING ? Sort.desc(attribute) : Sort.asc(attribute));
+                }
+            }
+        }
+        if (sorts.isEmpty()) {
+            sorts.add(Sort.asc("lastName"));
+            sorts.add(Sort.asc("firstName"));
+        }
+        // Sort by the primary key last so that rows do not move between pages
+        sorts.add(Sort.asc("id"));
+        return Order.by(sorts);
+    }
+}
@@ -1,7 +1,7 @@
 package dmit2015.view;
 
 import dmit2015.entity.Job;
-import dmit2015.repository.HumanResourcesRepository;
+import dmit2015.service.ReferenceDataSearchService;
 import jakarta.enterprise.context.ApplicationScoped;
 import jakarta.faces.component.UIComponent;
 import jakarta.faces.context.FacesContext;
@@ -17,12 +17,12 @@
 public class JobConverter implements Converter<Job> {
 
     @Inject
-    private HumanResourcesRepository hrRepository;
+    private ReferenceDataSearchService referenceDataSearchService;  // served from the in-memory index
 
     @Override
     public Job getAsObject(FacesContext facesContext, UIComponent uiComponent, String s) {
         String jobId = s;
-        return hrRepository.jobByJobId(jobId);
+        return referenceDataSearchService.jobByJobId(jobId);
     }
 
     @Override
@@ -0,0 +1,43 @@
+package common.search;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.function.Function;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class TextSearchIndexTest {
+
+    private final TextSearchIndex<String> departmentIndex = new TextSearchIndex<>(
+            List.of("Shipping", "Administration", "IT Support", "Accounting", "Sales", "IT", "Purchasing", "Public Relations"),
+            Function.identity());
+
+    @Test
+    void shouldReturnPrefixMatchesBeforeInfixMatches() {
+        assertThat(departmentIndex.search("s", 10))
+                .containsExactly("Sales", "Shipping", "Administration", "IT Support", "Public Relations", "Purchasing");
+    }
+
+    @Test
+    void shouldFindInfixMatchesUsingGrams() {
+        assertThat(departmentIndex.search("ation", 10))
+                .containsExactly("Administration", "Public Relations");
+        assertThat(departmentIndex.search("xyz", 10))
+                .isEmpty();
+    }
+
+    @Test
+    void shouldIgnoreCase() {
+        assertThat(departmentIndex.search("IT s", 10))
+                .containsExactly("IT Support");
+    }
+
+    @Test
+    void shouldLimitResults() {
+        assertThat(departmentIndex.search("", 3))
+                .containsExactly("Accounting", "Administration", "IT");
+        assertThat(departmentIndex.search("s", 2))
+                .containsExactly("Sales", "Shipping");
+    }
+}
@@ -30,7 +30,8 @@ public void filter(ContainerRequestContext requestContext, ContainerResponseCont
             MultivaluedMap<String, Object> headers = responseContext.getHeaders();
             headers.add("Access-Control-Allow-Origin","*"); // allow requests from any origin
             headers.add("Access-Control-Allow-Credentials", "true");    // allow credentials to be included
-            headers.add("Access-Control-Allow-Headers","Origin, Content-Type, Accept, Authorization");  // allow custom headers
+            headers.add("Access-Control-Allow-Headers","Origin, Content-Type, Accept, Authorization, If-None-Match, If-Match");  // allow custom headers
+            headers.add("Access-Control-Expose-Headers","ETag, Link, Location");  // allow scripts to read these response headers
             headers.add("Access-Control-Allow-Methods","GET, POST, PUT, PATCH, DELETE, OPTIONS, HEAD"); // allowed HTTP methods
         }
     }
@@ -0,0 +1,154 @@
+package common.http;
+
+import jakarta.ws.rs.core.EntityTag;
+import jakarta.ws.rs.core.Request;
+import jakarta.ws.rs.core.Response;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HexFormat;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+/**
+ * This class contains class-level (static) methods for building HTTP conditional GET responses.
+ * A response includes an ETag header and a request with a matching If-None-Match header
+ * is answered with "304 Not Modified" and no body.
+ * <p>
+ * The following example returns a TodoItem with an ETag created from its id and version.
+ * {@snippet :
+ *      @GET
+ *      @Path("{id}")
+ *      public Response getTodoItem(@PathParam("id") Long id, @Context Request request) {
+ *          TodoItem existingTodoItem = todoItemRepository.findById(id).orElseThrow(NotFoundException::new);
+ *          EntityTag entityTag = ConditionalResponses.entityTag(existingTodoItem.getId(), existingTodoItem.getVersion());
+ *          return ConditionalResponses.ok(request, entityTag, () -> TodoItemMapper.INSTANCE.toDto(existingTodoItem));
+ *      }
+ * }
+ */
+public final class ConditionalResponses {
+
+    private ConditionalResponses() {
+    }
+
+    /**
+     * Create a strong ETag for a single entity from its id and its @Version value.
+     */
+    public static EntityTag entityTag(Object id, Object version) {
+        return new EntityTag(id + "-" + version);
+    }
+
+    /**
+     * Create a weak ETag from values that change whenever a collection changes,
+     * such as the row count and the maximum version or update time.
+     * The values are hashed with SHA-256 so different values do not share the same ETag.
+     */
+    public static EntityTag weakEntityTag(Object... collectionStateValues) {
+        String value = Arrays.stream(collectionStateValues)
+                .map(Objects::toString)
+                .collect(Collectors.joining("-"));
+        return new EntityTag(sha256(value), true);
+    }
+
+    /**
+     * Return "304 Not Modified" if the If-None-Match header of the request matches `entityTag`,
+     * otherwise return "200 OK" with the entity from `entitySupplier`. Both responses include the ETag header.
+     *
+     * @param request the current request
+     * @param entityTag the ETag of the current representation
+     * @param entitySupplier creates the response body, only called when the client does not have the current representation
+     */
+    public static Response ok(Request request, EntityTag entityTag, Supplier<?> entitySupplier) {
+        Response.ResponseBuilder notModifiedResponseBuilder = request.evaluatePreconditions(entityTag);
+        if (notModifiedResponseBuilder != null) {
+            return notModifiedResponseBuilder.tag(entityTag).build();
+        }
+        return Response.ok(entitySupplier.get()).tag(entityTag).build();
+    }
+
+    /**
+     * Return true if the value of an If-Match header is *, which matches any current representation.
+     */
+    public static boolean isAnyEntityTag(String ifMatch) {
+        return ifMatch != null && ifMatch.trim().equals("*");
+    }
+
+    /**
+     * Return the versions of the entity with `id` listed in an If-Match request header.
+     * Each ETag in the header is compared to the ETag created by {@link #entityTag(Object, Object)}
+     * using the strong comparison, so weak ETags and the ETags of other entities never match.
+     *
+     * @param id the id of the entity that is being changed
+     * @param ifMatch the value of the If-Match header, such as "5-2" or a list such as "5-2", "5-3"
+     * @return the matching versions in the order of the header, which is empty if no ETag matches
+     */
+    public static Set<Integer> versionsFromIfMatch(Object id, String ifMatch) {
+        String prefix = id + "-";
+        Set<Integer> versions = new LinkedHashSet<>();
+        for (EntityTag entityTag : parseEntityTags(ifMatch)) {
+            if (entityTag.isWeak() || !entityTag.getValue().startsWith(prefix)) {
+                continue;
+            }
+            try {
+                Integer version = Integer.valueOf(entityTag.getValue().substring(prefix.length()));
+                if (entityTag.equals(entityTag(id, version))) {
+                    versions.add(version);
+                }
+            } catch (NumberFormatException ex) {
+                // The ETag was not created by entityTag(id, version) so it does not match
+            }
+        }
+        return versions;
+    }
+
+    /**
+     * Return the entity tags in the value of an If-Match or If-None-Match header.
+     * The value is a comma separated list of quoted tags, each with an optional W/ prefix for a weak tag.
+     * A list member that is not a quoted tag is skipped.
+     */
+    public static List<EntityTag> parseEntityTags(String headerValue) {
+        List<EntityTag> entityTags = new ArrayList<>();
+        if (headerValue == null) {
+            return entityTags;
+        }
+        int index = 0;
+        while (index < headerValue.length()) {
+            char currentChar = headerValue.charAt(index);
+            if (currentChar == ',' || currentChar == ' ' || currentChar == '\t') {
+                index++;
+                continue;
+            }
+            boolean weak = headerValue.startsWith("W/", index);
+            int openQuote = weak ? index + 2 : index;
+            int closeQuote = openQuote < headerValue.length() && headerValue.charAt(openQuote) == '"'
+                    ? headerValue.indexOf('"', openQuote + 1)
+                    : -1;
+            if (closeQuote < 0) {
+                // Skip to the next list member
+                int nextComma = headerValue.indexOf(',', index);
+                index = nextComma < 0 ? headerValue.length() : nextComma + 1;
+                continue;
+            }
+            entityTags.add(new EntityTag(headerValue.substring(openQuote + 1, closeQuote), weak));
+            index = closeQuote + 1;
+        }
+        return entityTags;
+    }
+
+    private static String sha256(String value) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(value.getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(digest);
+        } catch (NoSuchAlgorithmException ex) {
+            // Every Java platform is required to support SHA-256
+            throw new RuntimeException(ex);
+        }
+    }
+}
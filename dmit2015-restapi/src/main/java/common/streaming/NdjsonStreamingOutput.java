@@ -0,0 +1,61 @@
+package common.streaming;
+
+import jakarta.json.bind.Jsonb;
+import jakarta.json.bind.JsonbBuilder;
+import jakarta.ws.rs.core.StreamingOutput;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.function.Consumer;
+
+/**
+ * This class writes a sequence of objects as newline delimited JSON (NDJSON), one JSON object per line,
+ * while the objects are being produced instead of after the whole collection has been read.
+ * <p>
+ * The `source` is given a callback that writes one object to the response. The following example streams
+ * every TodoItem from a repository method that reads the rows through a database cursor.
+ * {@snippet :
+ *      StreamingOutput output = new NdjsonStreamingOutput<TodoItemDto>(
+ *              writeLine -> todoItemRepository.forEach(500, item -> writeLine.accept(TodoItemMapper.INSTANCE.toDto(item))));
+ *      return Response.ok(output, NdjsonStreamingOutput.APPLICATION_NDJSON).build();
+ * }
+ *
+ * @param <T> The type of object written on each line.
+ */
+public class NdjsonStreamingOutput<T> implements StreamingOutput {
+
+    public static final String APPLICATION_NDJSON = "application/x-ndjson";
+
+    // Jsonb instances are thread-safe and expensive to create so share a single instance
+    private static final Jsonb JSONB = JsonbBuilder.create();
+
+    private final Consumer<Consumer<T>> source;
+
+    public NdjsonStreamingOutput(Consumer<Consumer<T>> source) {
+        this.source = source;
+    }
+
+    @Override
+    public void write(OutputStream output) throws IOException {
+        Writer writer = new BufferedWriter(new OutputStreamWriter(output, StandardCharsets.UTF_8));
+        try {
+            source.accept(item -> {
+                try {
+                    // Serialize to a String as Jsonb.toJson(Object, Writer) closes the writer when done
+                    writer.write(JSONB.toJson(item));
+                    writer.write('\n');
+                } catch (IOException ex) {
+                    throw new UncheckedIOException(ex);
+                }
+            });
+        } catch (UncheckedIOException ex) {
+            throw ex.getCause();
+        }
+        writer.flush();
+    }
+}
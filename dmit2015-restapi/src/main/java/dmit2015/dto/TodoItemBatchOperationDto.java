@@ -0,0 +1,28 @@
+package dmit2015.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.io.Serializable;
+
+/**
+ * A single create, update or delete operation in a request to the TodoItemsDto/batch endpoint.
+ * For a DELETE only the id and version of the item are used.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class TodoItemBatchOperationDto implements Serializable {
+
+    public enum Operation {
+        CREATE,
+        UPDATE,
+        DELETE
+    }
+
+    private Operation operation;
+
+    private TodoItemDto item;
+
+}
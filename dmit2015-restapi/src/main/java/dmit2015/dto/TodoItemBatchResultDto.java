@@ -0,0 +1,30 @@
+package dmit2015.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.io.Serializable;
+
+/**
+ * The outcome of one operation in a request to the TodoItemsDto/batch endpoint.
+ * The status is the HTTP status code the operation would have returned on its own.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class TodoItemBatchResultDto implements Serializable {
+
+    private int index;
+
+    private TodoItemBatchOperationDto.Operation operation;
+
+    private Long id;
+
+    private Integer version;
+
+    private int status;
+
+    private String message;
+
+}
@@ -16,7 +16,9 @@
 public class TodoItem implements Serializable {
 
     @Id                 // This is the primary key field
-    @GeneratedValue(strategy = GenerationType.IDENTITY)     // This primary key field is generated by the database
+    // A sequence (rather than an identity column) lets Hibernate assign ids before the insert and batch the inserts
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "todoitem_seq")
+    @SequenceGenerator(name = "todoitem_seq", sequenceName = "todoitem_seq", allocationSize = 50)
     private Long id;
 
     @NotBlank(message = "Task cannot be blank.")
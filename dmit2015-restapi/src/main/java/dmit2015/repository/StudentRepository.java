@@ -6,9 +6,13 @@
 import jakarta.persistence.PersistenceContext;
 import jakarta.transaction.Transactional;
 import jakarta.validation.Valid;
+import org.hibernate.jpa.HibernateHints;
 
+import java.util.Iterator;
 import java.util.List;
 import java.util.Optional;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
 
 /**
  * This Jakarta Persistence class contains methods for performing CRUD operations on a
@@ -48,6 +52,31 @@ public List<Student> findAll() {
                 .getResultList();
     }
 
+    /**
+     * Pass each Student ordered by id to `action` while reading the rows through a database cursor.
+     * The persistence context is cleared after every `fetchSize` rows so that memory use stays
+     * flat no matter how many rows are in the table.
+     *
+     * @param fetchSize the number of rows to fetch per JDBC round trip
+     * @param action the code to run for each Student
+     */
+    @Transactional
+    public void forEach(int fetchSize, Consumer<Student> action) {
+        try (Stream<Student> resultStream = _entityManager.createQuery("SELECT o FROM Student o ORDER BY o.id", Student.class)
+                .setHint(HibernateHints.HINT_FETCH_SIZE, fetchSize)
+                .setHint(HibernateHints.HINT_READ_ONLY, true)
+                .getResultStream()) {
+            int rowCount = 0;
+            Iterator<Student> iterator = resultStream.iterator();
+            while (iterator.hasNext()) {
+                action.accept(iterator.next());
+                if (++rowCount % fetchSize == 0) {
+                    _entityManager.clear();
+                }
+            }
+        }
+    }
+
     @Transactional
     public Student update(@Valid Student updatedStudent) {
         Long id = updatedStudent.getId();
@@ -90,6 +119,18 @@ public void deleteById(Long studentId) {
         }
     }
 
+    /**
+     * Return values that change whenever any Student is created, updated or deleted: the row count,
+     * the maximum id, the sum of all versions and the most recent create or update time.
+     * These are used to create a weak ETag for the collection without reading every row.
+     */
+    public Object[] findCollectionState() {
+        return _entityManager.createQuery(
+                        "SELECT COUNT(o), MAX(o.id), SUM(o.version), MAX(COALESCE(o.updateTime, o.createTime)) FROM Student o",
+                        Object[].class)
+                .getSingleResult();
+    }
+
     public long count() {
         return _entityManager.createQuery("SELECT COUNT(o) FROM Student o", Long.class).getSingleResult();
     }
@@ -3,12 +3,22 @@
 import dmit2015.entity.TodoItem;
 import jakarta.enterprise.context.ApplicationScoped;
 import jakarta.persistence.EntityManager;
+import jakarta.persistence.OptimisticLockException;
 import jakarta.persistence.PersistenceContext;
 import jakarta.transaction.Transactional;
 import jakarta.validation.Valid;
+import org.hibernate.jpa.HibernateHints;
 
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 /**
  * This Jakarta Persistence class contains methods for performing CRUD operations on a
@@ -48,6 +58,50 @@ public List<TodoItem> findAll() {
                 .getResultList();
     }
 
+    /**
+     * Return the next page of TodoItem ordered by id using keyset (seek) pagination.
+     * Only rows with an id greater than `afterId` are read, so the cost of a page does not grow
+     * with how far into the table the client has paged.
+     *
+     * @param afterId the id of the last TodoItem from the previous page, or null for the first page
+     * @param maxResults the maximum number of TodoItem to return
+     * @return a list of at most `maxResults` TodoItem ordered by id
+     */
+    public List<TodoItem> findAllAfter(Long afterId, int maxResults) {
+        return _entityManager.createQuery("SELECT o FROM TodoItem o WHERE o.id > :afterId ORDER BY o.id", TodoItem.class)
+                .setParameter("afterId", afterId == null ? 0L : afterId)
+                .setMaxResults(maxResults)
+                // Fetch the page in a single JDBC round trip and skip dirty-checking snapshots
+                .setHint(HibernateHints.HINT_FETCH_SIZE, maxResults)
+                .setHint(HibernateHints.HINT_READ_ONLY, true)
+                .getResultList();
+    }
+
+    /**
+     * Pass each TodoItem ordered by id to `action` while reading the rows through a database cursor.
+     * The persistence context is cleared after every `fetchSize` rows so that memory use stays
+     * flat no matter how many rows are in the table.
+     *
+     * @param fetchSize the number of rows to fetch per JDBC round trip
+     * @param action the code to run for each TodoItem
+     */
+    @Transactional
+    public void forEach(int fetchSize, Consumer<TodoItem> action) {
+        try (Stream<TodoItem> resultStream = _entityManager.createQuery("SELECT o FROM TodoItem o ORDER BY o.id", TodoItem.class)
+                .setHint(HibernateHints.HINT_FETCH_SIZE, fetchSize)
+                .setHint(HibernateHints.HINT_READ_ONLY, true)
+                .getResultStream()) {
+            int rowCount = 0;
+            Iterator<TodoItem> iterator = resultStream.iterator();
+            while (iterator.hasNext()) {
+                action.accept(iterator.next());
+                if (++rowCount % fetchSize == 0) {
+                    _entityManager.clear();
+                }
+            }
+        }
+    }
+
     @Transactional
     public TodoItem update(@Valid TodoItem updatedTodoItem) {
        Optional<TodoItem> optionalTodoItem = findById(updatedTodoItem.getId());
@@ -65,6 +119,98 @@ public TodoItem update(@Valid TodoItem updatedTodoItem) {
         return updatedTodoItem;
     }
 
+    /**
+     * Update the editable properties of a TodoItem with a single UPDATE statement that only succeeds if the
+     * row still has the `expectedVersion`. This avoids reading the TodoItem before updating it.
+     * After a successful update the version of `updatedTodoItem` is set to the new version.
+     *
+     * @param updatedTodoItem the TodoItem with the id and new property values
+     * @param expectedVersion the version the client last read
+     * @return true if the TodoItem was updated, false if the id does not exist or the version has changed
+     */
+    @Transactional
+    public boolean updateIfVersionMatches(@Valid TodoItem updatedTodoItem, Integer expectedVersion) {
+        // A bulk update does not run the @PreUpdate callback so the updateTime is set here
+        int updateCount = _entityManager.createQuery("""
+                        UPDATE TodoItem o
+                        SET o.task = :task, o.done = :done, o.version = o.version + 1, o.updateTime = :updateTime
+                        WHERE o.id = :id AND o.version = :version
+                        """)
+                .setParameter("task", updatedTodoItem.getTask())
+                .setParameter("done", updatedTodoItem.isDone())
+                .setParameter("updateTime", LocalDateTime.now())
+                .setParameter("id", updatedTodoItem.getId())
+                .setParameter("version", expectedVersion)
+                .executeUpdate();
+        if (updateCount == 1) {
+            updatedTodoItem.setVersion(expectedVersion + 1);
+            return true;
+        }
+        return false;
+    }
+
+    public List<TodoItem> findAllById(List<Long> todoItemIds) {
+        if (todoItemIds.isEmpty()) {
+            return List.of();
+        }
+        return _entityManager.createQuery("SELECT o FROM TodoItem o WHERE o.id IN :ids", TodoItem.class)
+                .setParameter("ids", todoItemIds)
+                .getResultList();
+    }
+
+    /**
+     * Create, update and delete many TodoItem in a single transaction. The statements are sent to the
+     * database in JDBC batches (see hibernate.jdbc.batch_size in persistence.xml) when the transaction is flushed.
+     * <p>
+     * The `updatedTodoItems` and `deletedTodoItems` must contain the version that the client last read.
+     * After this method returns the id and version of each new and updated TodoItem has been set.
+     *
+     * @throws OptimisticLockException if any updated or deleted TodoItem has been changed since it was read
+     */
+    @Transactional
+    public void applyBatch(List<TodoItem> newTodoItems, List<TodoItem> updatedTodoItems, List<TodoItem> deletedTodoItems) {
+        List<Long> existingIds = new ArrayList<>();
+        updatedTodoItems.forEach(item -> existingIds.add(item.getId()));
+        deletedTodoItems.forEach(item -> existingIds.add(item.getId()));
+        // Load every existing TodoItem with one query instead of one find per item
+        Map<Long, TodoItem> existingTodoItemsById = findAllById(existingIds)
+                .stream()
+                .collect(Collectors.toMap(TodoItem::getId, item -> item));
+
+        for (TodoItem newTodoItem : newTodoItems) {
+            _entityManager.persist(newTodoItem);
+        }
+
+        for (TodoItem updatedTodoItem : updatedTodoItems) {
+            TodoItem existingTodoItem = findExistingForBatch(existingTodoItemsById, updatedTodoItem);
+            // Update only properties that is editable by the end user
+            existingTodoItem.setTask(updatedTodoItem.getTask());
+            existingTodoItem.setDone(updatedTodoItem.isDone());
+        }
+
+        for (TodoItem deletedTodoItem : deletedTodoItems) {
+            _entityManager.remove(findExistingForBatch(existingTodoItemsById, deletedTodoItem));
+        }
+
+        // Flush now so the new version of each updated TodoItem can be returned to the caller
+        _entityManager.flush();
+        for (TodoItem updatedTodoItem : updatedTodoItems) {
+            updatedTodoItem.setVersion(existingTodoItemsById.get(updatedTodoItem.getId()).getVersion());
+        }
+    }
+
+    private TodoItem findExistingForBatch(Map<Long, TodoItem> existingTodoItemsById, TodoItem todoItem) {
+        TodoItem existingTodoItem = existingTodoItemsById.get(todoItem.getId());
+        if (existingTodoItem == null) {
+            String errorMessage = String.format("The id %s does not exists in the system.", todoItem.getId());
+            throw new RuntimeException(errorMessage);
+        }
+        if (todoItem.getVersion() != null && !Objects.equals(todoItem.getVersion(), existingTodoItem.getVersion())) {
+            throw new OptimisticLockException(existingTodoItem);
+        }
+        return existingTodoItem;
+    }
+
     @Transactional
     public void delete(TodoItem existingTodoItem) {
         // Write code to throw a RuntimeException if this entity contains child records
@@ -87,6 +233,18 @@ public void deleteById(Long todoItemId) {
         }
     }
 
+    /**
+     * Return values that change whenever any TodoItem is created, updated or deleted: the row count,
+     * the maximum id, the sum of all versions and the most recent create or update time.
+     * These are used to create a weak ETag for the collection without reading every row.
+     */
+    public Object[] findCollectionState() {
+        return _entityManager.createQuery(
+                        "SELECT COUNT(o), MAX(o.id), SUM(o.version), MAX(COALESCE(o.updateTime, o.createTime)) FROM TodoItem o",
+                        Object[].class)
+                .getSingleResult();
+    }
+
     public long count() {
         return _entityManager.createQuery("SELECT COUNT(o) FROM TodoItem o", Long.class).getSingleResult();
     }
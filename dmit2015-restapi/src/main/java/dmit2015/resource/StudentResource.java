@@ -1,5 +1,7 @@
 package dmit2015.resource;
 
+import common.http.ConditionalResponses;
+import common.streaming.NdjsonStreamingOutput;
 import common.validation.JavaBeanValidator;
 import dmit2015.entity.Student;
 import dmit2015.repository.StudentRepository;
@@ -8,7 +10,9 @@
 import jakarta.persistence.OptimisticLockException;
 import jakarta.ws.rs.*;
 import jakarta.ws.rs.core.Context;
+import jakarta.ws.rs.core.EntityTag;
 import jakarta.ws.rs.core.MediaType;
+import jakarta.ws.rs.core.Request;
 import jakarta.ws.rs.core.Response;
 import jakarta.ws.rs.core.UriInfo;
 
@@ -24,20 +28,35 @@
 @Produces(MediaType.APPLICATION_JSON)    // All methods returns data that has been converted to JSON format
 public class StudentResource {
 
+    private static final int STREAM_FETCH_SIZE = 500;
+
     @Inject
     private StudentRepository _studentRepository;
 
     @GET    // This method only accepts HTTP GET requests.
-    public Response findAllStudentsStudents() {
-        return Response.ok(_studentRepository.findAll()).build();
+    public Response findAllStudentsStudents(@Context Request request) {
+        // Returns "304 Not Modified" without reading the students when the If-None-Match header matches
+        EntityTag entityTag = ConditionalResponses.weakEntityTag(_studentRepository.findCollectionState());
+        return ConditionalResponses.ok(request, entityTag, _studentRepository::findAll);
+    }
+
+    @Path("stream")
+    @GET    // This method only accepts HTTP GET requests. A separate path keeps a GET without an Accept header returning JSON.
+    @Produces(NdjsonStreamingOutput.APPLICATION_NDJSON)
+    public Response streamAllStudents() {
+        // Each Student is written to the response as soon as it is read from the database cursor
+        var output = new NdjsonStreamingOutput<Student>(writeLine ->
+                _studentRepository.forEach(STREAM_FETCH_SIZE, writeLine));
+        return Response.ok(output).build();
     }
 
     @Path("{id}")
     @GET    // This method only accepts HTTP GET requests.
-    public Response findStudentById(@PathParam("id") Long id) {
+    public Response findStudentById(@PathParam("id") Long id, @Context Request request) {
         Student existingStudent = _studentRepository.findById(id).orElseThrow(NotFoundException::new);
 
-        return Response.ok(existingStudent).build();
+        EntityTag entityTag = ConditionalResponses.entityTag(existingStudent.getId(), existingStudent.getVersion());
+        return ConditionalResponses.ok(request, entityTag, () -> existingStudent);
     }
 
     @POST    // This method only accepts HTTP POST requests.
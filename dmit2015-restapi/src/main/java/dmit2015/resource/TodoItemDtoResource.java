@@ -1,6 +1,10 @@
 package dmit2015.resource;
 
+import common.http.ConditionalResponses;
+import common.streaming.NdjsonStreamingOutput;
 import common.validation.JavaBeanValidator;
+import dmit2015.dto.TodoItemBatchOperationDto;
+import dmit2015.dto.TodoItemBatchResultDto;
 import dmit2015.dto.TodoItemDto;
 import dmit2015.mapper.TodoItemMapper;
 import dmit2015.entity.TodoItem;
@@ -9,12 +13,23 @@
 import jakarta.inject.Inject;
 import jakarta.persistence.OptimisticLockException;
 import jakarta.ws.rs.*;
+import jakarta.ws.rs.core.Context;
+import jakarta.ws.rs.core.EntityTag;
+import jakarta.ws.rs.core.HttpHeaders;
 import jakarta.ws.rs.core.MediaType;
+import jakarta.ws.rs.core.Request;
 import jakarta.ws.rs.core.Response;
 import jakarta.ws.rs.core.UriInfo;
 
 import java.net.URI;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.Set;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 
@@ -28,12 +43,20 @@
  *                                         	        }
  * 	/restapi/TodoItemsDto/{id}		GET			                                                    Find one TodoItem with a id value
  * 	/restapi/TodoItemsDto		    GET			                                                    Find all TodoItem
- * 	/restapi/TodoItemsDto/{id}      PUT             {
+ * 	/restapi/TodoItemsDto?limit=50&after=100  GET                                                   Find the next page of TodoItem after id 100
+ * 	/restapi/TodoItemsDto/stream    GET			                                                    Stream all TodoItem as newline delimited JSON
+ * 	/restapi/TodoItemsDto/{id}      PUT             {                                               (optional If-Match: "<id>-<version>" header)
  * 	                                                "id":1,                                         Update the TodoItem
  * 	                                                "name":"Demo DMIT2015 assignment 1",
  *                                                  "complete":true
  *                                                  }
  * /restapi/TodoItemsDto/{id}		DELETE			                                                Remove the TodoItem
+ * /restapi/TodoItemsDto/batch     POST            [                                               Create, update and delete many TodoItem
+ *                                                  {"operation":"CREATE",                         in one transaction
+ *                                                   "item":{"name":"Demo","complete":false}},
+ *                                                  {"operation":"DELETE",
+ *                                                   "item":{"id":2,"version":0}}
+ *                                                  ]                                               (at most 500 operations)
  *
  *
  */
@@ -45,6 +68,12 @@
 @Produces(MediaType.APPLICATION_JSON)	// All methods returns data that has been converted to JSON format
 public class TodoItemDtoResource {
 
+    static final int DEFAULT_PAGE_SIZE = 100;
+    static final int MAX_PAGE_SIZE = 1000;
+    static final int STREAM_FETCH_SIZE = 500;
+    // Every operation of a batch is loaded and flushed in one transaction
+    static final int MAX_BATCH_SIZE = 500;
+
     @Inject
     private UriInfo uriInfo;
 
@@ -72,68 +101,290 @@ public Response postTodoItem(TodoItemDto dto) {
 
     @GET    // GET: restapi/TodoItemsDto/5
     @Path("{id}")
-    public Response getTodoItem(@PathParam("id") Long id) {
+    public Response getTodoItem(@PathParam("id") Long id, @Context Request request) {
         Optional<TodoItem> optionalTodoItem = todoItemRepository.findById(id);
 
         if (optionalTodoItem.isEmpty()) {
             throw new NotFoundException();
         }
         TodoItem existingTodoItem = optionalTodoItem.get();
-//        TodoItemDto dto = mapToDto(existingTodoItem);
-        TodoItemDto dto = TodoItemMapper.INSTANCE.toDto(existingTodoItem);
 
-        return Response.ok(dto).build();
+        // Returns "304 Not Modified" when the client already has this version of the TodoItem
+        EntityTag entityTag = ConditionalResponses.entityTag(existingTodoItem.getId(), existingTodoItem.getVersion());
+//        TodoItemDto dto = mapToDto(existingTodoItem);
+        return ConditionalResponses.ok(request, entityTag, () -> TodoItemMapper.INSTANCE.toDto(existingTodoItem));
     }
 
     @GET    // GET: restapi/TodoItemsDto
-    public Response getTodoItems() {
-        return Response.ok(todoItemRepository.findAll()
-                .stream()
+    public Response getTodoItems(@QueryParam("limit") Integer limit, @QueryParam("after") Long after, @Context Request request) {
+        if (limit == null && after == null) {
+            // The list is only read from the database when the client does not already have the current version
+            EntityTag entityTag = ConditionalResponses.weakEntityTag(todoItemRepository.findCollectionState());
+            return ConditionalResponses.ok(request, entityTag, () -> todoItemRepository.findAll()
+                    .stream()
 //                .map(this::mapToDto)
+                    .map(TodoItemMapper.INSTANCE::toDto)
+                    .collect(Collectors.toList()));
+        }
+
+        int pageSize = limit != null ? limit : DEFAULT_PAGE_SIZE;
+        if (pageSize < 1 || pageSize > MAX_PAGE_SIZE) {
+            return Response
+                    .status(Response.Status.BAD_REQUEST)
+                    .entity(String.format("The limit must be between 1 and %d.", MAX_PAGE_SIZE))
+                    .build();
+        }
+
+        // Read one extra row to find out if there is a next page without running a count query
+        List<TodoItem> pageItems = todoItemRepository.findAllAfter(after, pageSize + 1);
+        boolean hasNextPage = pageItems.size() > pageSize;
+        if (hasNextPage) {
+            pageItems = pageItems.subList(0, pageSize);
+        }
+
+        List<TodoItemDto> dtos = pageItems
+                .stream()
                 .map(TodoItemMapper.INSTANCE::toDto)
-                .collect(Collectors.toList()))
-                .build();
+                .collect(Collectors.toList());
+
+        Response.ResponseBuilder responseBuilder = Response.ok(dtos);
+        if (hasNextPage) {
+            Long lastId = pageItems.getLast().getId();
+            URI nextUri = uriInfo.getRequestUriBuilder()
+                    .replaceQueryParam("limit", pageSize)
+                    .replaceQueryParam("after", lastId)
+                    .build();
+            responseBuilder.link(nextUri, "next");
+        }
+        return responseBuilder.build();
+    }
+
+    @GET    // GET: restapi/TodoItemsDto/stream
+    @Path("stream")
+    @Produces(NdjsonStreamingOutput.APPLICATION_NDJSON)
+    public Response streamTodoItems() {
+        var output = new NdjsonStreamingOutput<TodoItemDto>(writeLine ->
+                todoItemRepository.forEach(STREAM_FETCH_SIZE, item -> writeLine.accept(TodoItemMapper.INSTANCE.toDto(item))));
+        return Response.ok(output).build();
     }
 
     @PUT    // PUT: restapi/TodoItemsDto/5
     @Path("{id}")
-    public Response updateTodoItem(@PathParam("id") Long id, TodoItemDto dto) {
+    public Response updateTodoItem(@PathParam("id") Long id, TodoItemDto dto, @HeaderParam(HttpHeaders.IF_MATCH) String ifMatch) {
         if (!id.equals(dto.getId())) {
             throw new BadRequestException();
         }
 
-        Optional<TodoItem> optionalTodoItem = todoItemRepository.findById(id);
-        if (optionalTodoItem.isEmpty()) {
-            throw new NotFoundException();
-        }
-
         String errorMessage = JavaBeanValidator.validateBean(dto);
         if (errorMessage != null) {
             return Response.status(Response.Status.BAD_REQUEST).entity(errorMessage).build();
         }
 
-        TodoItem existingTodoItem = optionalTodoItem.orElseThrow();
-        // Copy data from the updated entity to the existing entity
-        existingTodoItem.setVersion(dto.getVersion());
-        existingTodoItem.setTask(dto.getName());
-        existingTodoItem.setDone(dto.isComplete());
+        // The If-Match header takes precedence over the version in the request body
+        Integer expectedVersion = dto.getVersion();
+        if (ifMatch != null && !ifMatch.isBlank()) {
+            expectedVersion = versionFromIfMatch(id, ifMatch);
+            if (expectedVersion == null) {
+                return Response
+                        .status(Response.Status.PRECONDITION_FAILED)
+                        .entity("The If-Match header does not match the current version of the data. Please fetch new version.")
+                        .build();
+            }
+        }
 
+        // Without a version from the client the last update wins
+        if (expectedVersion == null && todoItemRepository.findById(id).isEmpty()) {
+            throw new NotFoundException();
+        }
+
+        TodoItem updatedTodoItem = TodoItemMapper.INSTANCE.toEntity(dto);
+        boolean updated;
         try {
-            todoItemRepository.update(existingTodoItem);
+            if (expectedVersion != null) {
+                // Update with a single statement instead of reading the TodoItem first
+                updated = todoItemRepository.updateIfVersionMatches(updatedTodoItem, expectedVersion);
+            } else {
+                updatedTodoItem = todoItemRepository.update(updatedTodoItem);
+                updated = true;
+            }
         } catch (OptimisticLockException ex) {
+            updated = false;
+        } catch (Exception ex) {
             return Response
-                    .status(Response.Status.BAD_REQUEST)
+                    .serverError()
+                    .entity(ex.getMessage())
+                    .build();
+        }
+
+        if (!updated) {
+            if (todoItemRepository.findById(id).isEmpty()) {
+                throw new NotFoundException();
+            }
+            return Response
+                    .status(Response.Status.PRECONDITION_FAILED)
                     .entity("You are updating an old version of the data. Please fetch new version.")
                     .build();
+        }
+//        todoItemRepository.update(mapFromDto(dto));
+
+        dto.setVersion(updatedTodoItem.getVersion());
+        return Response
+                .ok(dto)
+                .tag(ConditionalResponses.entityTag(id, updatedTodoItem.getVersion()))
+                .build();
+    }
+
+    /**
+     * Return the version of the TodoItem to update that matches the If-Match header,
+     * or null if no ETag in the header matches the TodoItem.
+     */
+    private Integer versionFromIfMatch(Long id, String ifMatch) {
+        if (ConditionalResponses.isAnyEntityTag(ifMatch)) {
+            // * matches any version of a TodoItem that exists
+            return todoItemRepository.findById(id).map(TodoItem::getVersion).orElse(null);
+        }
+        Set<Integer> versions = ConditionalResponses.versionsFromIfMatch(id, ifMatch);
+        if (versions.size() <= 1) {
+            return versions.stream().findFirst().orElse(null);
+        }
+        // The header lists more than one version so only the current version can match
+        return todoItemRepository.findById(id)
+                .map(TodoItem::getVersion)
+                .filter(versions::contains)
+                .orElse(null);
+    }
+
+    @POST   // POST: restapi/TodoItemsDto/batch
+    @Path("batch")
+    public Response batchTodoItems(List<TodoItemBatchOperationDto> operations) {
+        if (operations == null || operations.isEmpty()) {
+            throw new BadRequestException();
+        }
+        if (operations.size() > MAX_BATCH_SIZE) {
+            return Response
+                    .status(Response.Status.BAD_REQUEST)
+                    .entity(String.format("A batch can have at most %d operations.", MAX_BATCH_SIZE))
+                    .build();
+        }
+
+        // Check every operation before applying any of them so the batch is all or nothing
+        List<Long> existingIds = operations.stream()
+                .filter(operation -> operation != null && operation.getItem() != null && operation.getItem().getId() != null)
+                .map(operation -> operation.getItem().getId())
+                .toList();
+        Map<Long, TodoItem> existingTodoItemsById = todoItemRepository.findAllById(existingIds)
+                .stream()
+                .collect(Collectors.toMap(TodoItem::getId, Function.identity()));
+
+        List<TodoItemBatchResultDto> results = new ArrayList<>();
+        Set<Long> batchIds = new HashSet<>();
+        boolean valid = true;
+        for (int index = 0; index < operations.size(); index++) {
+            TodoItemBatchResultDto result = validateBatchOperation(index, operations.get(index), existingTodoItemsById, batchIds);
+            valid &= result.getStatus() == Response.Status.OK.getStatusCode();
+            results.add(result);
+        }
+        if (!valid) {
+            for (TodoItemBatchResultDto result : results) {
+                if (result.getStatus() == Response.Status.OK.getStatusCode()) {
+                    result.setStatus(424);  // Failed Dependency
+                    result.setMessage("Not applied because another operation in the batch is invalid.");
+                }
+            }
+            return Response.status(Response.Status.BAD_REQUEST).entity(results).build();
+        }
+
+        List<TodoItem> newTodoItems = new ArrayList<>();
+        List<TodoItem> updatedTodoItems = new ArrayList<>();
+        List<TodoItem> deletedTodoItems = new ArrayList<>();
+        List<TodoItem> todoItemsByIndex = new ArrayList<>();
+        for (TodoItemBatchOperationDto operation : operations) {
+            TodoItem todoItem = TodoItemMapper.INSTANCE.toEntity(operation.getItem());
+            switch (operation.getOperation()) {
+                case CREATE -> newTodoItems.add(todoItem);
+                case UPDATE -> updatedTodoItems.add(todoItem);
+                case DELETE -> deletedTodoItems.add(todoItem);
+            }
+            todoItemsByIndex.add(todoItem);
+        }
+
+        try {
+            todoItemRepository.applyBatch(newTodoItems, updatedTodoItems, deletedTodoItems);
+        } catch (OptimisticLockException ex) {
+            return Response
+                    .status(Response.Status.CONFLICT)
+                    .entity("One or more items in the batch have changed since your last read request. No changes were applied.")
+                    .build();
         } catch (Exception ex) {
             return Response
                     .serverError()
                     .entity(ex.getMessage())
                     .build();
         }
-//        todoItemRepository.update(mapFromDto(dto));
 
-        return Response.ok(dto).build();
+        for (int index = 0; index < results.size(); index++) {
+            TodoItemBatchResultDto result = results.get(index);
+            TodoItem todoItem = todoItemsByIndex.get(index);
+            result.setId(todoItem.getId());
+            switch (result.getOperation()) {
+                case CREATE -> {
+                    result.setStatus(Response.Status.CREATED.getStatusCode());
+                    result.setVersion(todoItem.getVersion());
+                }
+                case UPDATE -> result.setVersion(todoItem.getVersion());
+                case DELETE -> result.setStatus(Response.Status.NO_CONTENT.getStatusCode());
+            }
+        }
+        return Response.ok(results).build();
+    }
+
+    private TodoItemBatchResultDto validateBatchOperation(int index,
+                                                          TodoItemBatchOperationDto operation,
+                                                          Map<Long, TodoItem> existingTodoItemsById,
+                                                          Set<Long> batchIds) {
+        var result = new TodoItemBatchResultDto();
+        result.setIndex(index);
+        result.setStatus(Response.Status.OK.getStatusCode());
+        if (operation == null || operation.getOperation() == null || operation.getItem() == null) {
+            result.setStatus(Response.Status.BAD_REQUEST.getStatusCode());
+            result.setMessage("Each operation requires an operation type and an item.");
+            return result;
+        }
+
+        TodoItemDto dto = operation.getItem();
+        result.setOperation(operation.getOperation());
+        result.setId(dto.getId());
+
+        if (operation.getOperation() != TodoItemBatchOperationDto.Operation.DELETE) {
+            String errorMessage = JavaBeanValidator.validateBean(dto);
+            if (errorMessage != null) {
+                result.setStatus(Response.Status.BAD_REQUEST.getStatusCode());
+                result.setMessage(errorMessage);
+                return result;
+            }
+        }
+
+        if (operation.getOperation() == TodoItemBatchOperationDto.Operation.CREATE) {
+            // A new TodoItem must start at the initial version and get a generated id
+            dto.setId(null);
+            dto.setVersion(null);
+            return result;
+        }
+
+        if (dto.getId() == null || !batchIds.add(dto.getId())) {
+            result.setStatus(Response.Status.BAD_REQUEST.getStatusCode());
+            result.setMessage("Each update and delete requires an id that appears only once in the batch.");
+            return result;
+        }
+        TodoItem existingTodoItem = existingTodoItemsById.get(dto.getId());
+        if (existingTodoItem == null) {
+            result.setStatus(Response.Status.NOT_FOUND.getStatusCode());
+            result.setMessage(String.format("The id %s does not exists in the system.", dto.getId()));
+        } else if (dto.getVersion() != null && !Objects.equals(dto.getVersion(), existingTodoItem.getVersion())) {
+            result.setStatus(Response.Status.CONFLICT.getStatusCode());
+            result.setMessage("You are updating an old version of the data. Please fetch new version.");
+        }
+        return result;
     }
 
     @DELETE // DELETE: restapi/TodoItemsDto/5
@@ -0,0 +1,60 @@
+package common.http;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import static org.assertj.core.api.Assertions.*;
+
+class ConditionalResponsesTest {
+
+    @Test
+    void shouldMatchEntityTagOfSameEntity() {
+        assertThat(ConditionalResponses.versionsFromIfMatch(5L, "\"5-2\""))
+                .containsExactly(2);
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"\"6-2\"", "\"15-2\"", "\"55-2\"", "\"5-2-1\"", "\"2\""})
+    void shouldNotMatchEntityTagOfOtherEntity(String ifMatch) {
+        assertThat(ConditionalResponses.versionsFromIfMatch(5L, ifMatch))
+                .isEmpty();
+    }
+
+    @Test
+    void shouldNotMatchWeakEntityTag() {
+        assertThat(ConditionalResponses.versionsFromIfMatch(5L, "W/\"5-2\""))
+                .isEmpty();
+    }
+
+    @Test
+    void shouldMatchEachEntityTagInList() {
+        assertThat(ConditionalResponses.versionsFromIfMatch(5L, "\"6-1\", W/\"5-1\",\"5-2\" , \"5-3\""))
+                .containsExactly(2, 3);
+    }
+
+    @Test
+    void shouldSkipMalformedListMembers() {
+        assertThat(ConditionalResponses.versionsFromIfMatch(5L, "5-1, \"5-2, \"5-3\""))
+                .isEmpty();
+        assertThat(ConditionalResponses.versionsFromIfMatch(5L, "5-1, \"5-3\""))
+                .containsExactly(3);
+    }
+
+    @Test
+    void shouldParseCommaInsideQuotedEntityTag() {
+        assertThat(ConditionalResponses.parseEntityTags("\"a,b\", W/\"c\""))
+                .extracting(entityTag -> entityTag.getValue() + ":" + entityTag.isWeak())
+                .containsExactly("a,b:false", "c:true");
+    }
+
+    @Test
+    void shouldRecognizeAnyEntityTag() {
+        assertThat(ConditionalResponses.isAnyEntityTag(" * "))
+                .isTrue();
+        assertThat(ConditionalResponses.isAnyEntityTag("\"*\""))
+                .isFalse();
+        assertThat(ConditionalResponses.versionsFromIfMatch(5L, "*"))
+                .isEmpty();
+    }
+}
@@ -142,4 +142,36 @@ void shouldDelete() {
         assertThat(optionalTodoItem.isEmpty())
                 .isTrue();
     }
+
+    @Order(6)
+    @Test
+    void shouldFindAllAfter() {
+        List<TodoItem> firstPage = _todoRepository.findAllAfter(null, 2);
+        assertThat(firstPage)
+                .hasSize(2);
+        assertThat(firstPage.get(0).getId())
+                .isLessThan(firstPage.get(1).getId());
+
+        List<TodoItem> nextPage = _todoRepository.findAllAfter(firstPage.get(1).getId(), 2);
+        assertThat(nextPage)
+                .isNotEmpty()
+                .allSatisfy(item -> assertThat(item.getId()).isGreaterThan(firstPage.get(1).getId()));
+    }
+
+    @Order(7)
+    @Test
+    void shouldUpdateOnlyIfVersionMatches() {
+        TodoItem existingTodoItem = _todoRepository.findAllAfter(null, 1).getFirst();
+        Integer currentVersion = existingTodoItem.getVersion();
+
+        existingTodoItem.setTask("Update with a versioned UPDATE statement");
+        assertThat(_todoRepository.updateIfVersionMatches(existingTodoItem, currentVersion))
+                .isTrue();
+        assertThat(existingTodoItem.getVersion())
+                .isEqualTo(currentVersion + 1);
+
+        // The version read before the update is now stale
+        assertThat(_todoRepository.updateIfVersionMatches(existingTodoItem, currentVersion))
+                .isFalse();
+    }
 }
\ No newline at end of file
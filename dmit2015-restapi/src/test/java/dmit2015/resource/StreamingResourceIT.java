@@ -0,0 +1,104 @@
+package dmit2015.resource;
+
+import common.streaming.NdjsonStreamingOutput;
+import dmit2015.config.ApplicationConfig;
+import dmit2015.config.JaxRsApplication;
+import dmit2015.repository.StudentInitializer;
+import dmit2015.repository.StudentRepository;
+import dmit2015.repository.TodoItemInitializer;
+import dmit2015.repository.TodoItemRepository;
+import org.jboss.arquillian.container.test.api.Deployment;
+import org.jboss.arquillian.container.test.api.RunAsClient;
+import org.jboss.arquillian.junit5.ArquillianExtension;
+import org.jboss.arquillian.test.api.ArquillianResource;
+import org.jboss.shrinkwrap.api.ShrinkWrap;
+import org.jboss.shrinkwrap.api.spec.WebArchive;
+import org.jboss.shrinkwrap.resolver.api.maven.Maven;
+import org.jboss.shrinkwrap.resolver.api.maven.PomEquippedResolveStage;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.URL;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+
+import static org.assertj.core.api.Assertions.*;
+
+/**
+ * The collection path of a resource returns JSON to a client that does not send an Accept header
+ * and newline delimited JSON is only returned from the `stream` sub-path.
+ */
+@ExtendWith(ArquillianExtension.class)                  // Run with JUnit 5 instead of JUnit 4
+@RunAsClient                                            // Send HTTP requests from outside the server
+public class StreamingResourceIT {
+
+    @ArquillianResource
+    private URL deploymentUrl;
+
+    private final HttpClient httpClient = HttpClient.newHttpClient();
+
+    @Deployment(testable = false)
+    public static WebArchive createDeployment() {
+        PomEquippedResolveStage pomFile = Maven.resolver().loadPomFromFile("pom.xml");
+
+        return ShrinkWrap.create(WebArchive.class, "test.war")
+                .addAsLibraries(pomFile.resolve("com.h2database:h2:2.4.240").withTransitivity().asFile())
+                .addAsLibraries(pomFile.resolve("net.datafaker:datafaker:2.5.3").withTransitivity().asFile())
+                .addAsLibraries(pomFile.resolve("org.mapstruct:mapstruct:1.6.3").withTransitivity().asFile())
+                .addClasses(ApplicationConfig.class, JaxRsApplication.class)
+                .addPackages(false, "dmit2015.entity", "dmit2015.dto", "dmit2015.mapper")
+                .addClasses(StudentRepository.class, StudentInitializer.class, TodoItemRepository.class, TodoItemInitializer.class)
+                .addClasses(StudentResource.class, TodoItemDtoResource.class)
+                .addPackages(false, "common.http", "common.streaming", "common.validation")
+                .addAsResource("META-INF/persistence.xml")
+                .addAsResource("META-INF/beans.xml");
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"restapi/Students", "restapi/TodoItemsDto"})
+    void shouldReturnJsonWithoutAcceptHeader(String path) throws IOException, InterruptedException {
+        HttpResponse<String> response = send(HttpRequest.newBuilder(resolve(path)).GET().build());
+
+        assertThat(response.statusCode())
+                .isEqualTo(200);
+        assertThat(response.headers().firstValue("Content-Type"))
+                .hasValueSatisfying(contentType -> assertThat(contentType).startsWith("application/json"));
+        assertThat(response.body())
+                .startsWith("[");
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"restapi/Students", "restapi/TodoItemsDto"})
+    void shouldReturnJsonForAnyMediaType(String path) throws IOException, InterruptedException {
+        HttpResponse<String> response = send(HttpRequest.newBuilder(resolve(path)).header("Accept", "*/*").GET().build());
+
+        assertThat(response.headers().firstValue("Content-Type"))
+                .hasValueSatisfying(contentType -> assertThat(contentType).startsWith("application/json"));
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"restapi/Students/stream", "restapi/TodoItemsDto/stream"})
+    void shouldStreamNdjson(String path) throws IOException, InterruptedException {
+        HttpResponse<String> response = send(HttpRequest.newBuilder(resolve(path)).GET().build());
+
+        assertThat(response.statusCode())
+                .isEqualTo(200);
+        assertThat(response.headers().firstValue("Content-Type"))
+                .hasValueSatisfying(contentType -> assertThat(contentType).startsWith(NdjsonStreamingOutput.APPLICATION_NDJSON));
+        assertThat(response.body().lines())
+                .isNotEmpty()
+                .allSatisfy(line -> assertThat(line).startsWith("{").endsWith("}"));
+    }
+
+    private URI resolve(String path) {
+        return URI.create(deploymentUrl.toString()).resolve(path);
+    }
+
+    private HttpResponse<String> send(HttpRequest request) throws IOException, InterruptedException {
+        return httpClient.send(request, HttpResponse.BodyHandlers.ofString());
+    }
+}